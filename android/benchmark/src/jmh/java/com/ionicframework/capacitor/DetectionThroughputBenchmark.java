@@ -0,0 +1,117 @@
+package com.ionicframework.capacitor;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Frames per second of the whole detection path of detectInImage: scheduling, detection on the fake backend, tracking, serialization and metrics.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DetectionThroughputBenchmark {
+    private static final int FRAMES = 100;
+
+    // The simulated inference time of the fake backend.
+    @Param({"0", "5000000"})
+    public long latencyNanos;
+
+    @Param({"1", "2", "4"})
+    public int maxInFlight;
+
+    @Param({"false", "true"})
+    public boolean tracking;
+
+    private ExecutorService detectorExecutor;
+    private FakeFaceDetectorBackend backend;
+    private FaceDetectionPipeline<FakeFaceDetectorBackend.Image> pipeline;
+    private FrameScheduler<FakeFaceDetectorBackend.Image> scheduler;
+
+    private FieldProjection projection;
+    private FaceDetectorConfig config;
+    private FaceTracker tracker;
+
+    private volatile CountDownLatch completed;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        detectorExecutor = Executors.newFixedThreadPool(maxInFlight);
+        backend = new FakeFaceDetectorBackend(latencyNanos);
+
+        projection = FieldProjection.ALL;
+        config = FaceDetectorConfig.fromJSONObject(new JSONObject("{\"landmarkMode\": 2, \"contourMode\": 2, \"enableTracking\": true}"));
+        tracker = tracking ? new FaceTracker(TrackingOptions.DEFAULT) : null;
+
+        pipeline = new FaceDetectionPipeline<>(backend, detectorExecutor, new DetectionMetrics(), System::nanoTime);
+
+        scheduler = new FrameScheduler<>(
+                Runnable::run,
+                this::detect,
+                image -> completed.countDown()
+        );
+        scheduler.configure(maxInFlight, FRAMES, FrameScheduler.Policy.QUEUE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        detectorExecutor.shutdownNow();
+    }
+
+    private void detect(FakeFaceDetectorBackend.Image image, long queueWaitNanos, Runnable done) {
+        pipeline.detect(
+                image,
+                ImageTransform.IDENTITY,
+                config,
+                projection,
+                FaceResults.FORMAT_JSON,
+                tracker,
+                System.nanoTime(),
+                new DetectionTimings(),
+                false,
+                new JSONObject(),
+                done,
+                new FaceDetectionPipeline.Listener() {
+                    @Override
+                    public boolean onDetected(List<DetectedFace> faces) {
+                        return true;
+                    }
+
+                    @Override
+                    public void onSuccess() {
+                        completed.countDown();
+                    }
+
+                    @Override
+                    public void onFailure(Exception e) {
+                        completed.countDown();
+                    }
+                }
+        );
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FRAMES)
+    public void frames() throws Exception {
+        completed = new CountDownLatch(FRAMES);
+
+        for (int frame = 0; frame < FRAMES; frame++) {
+            scheduler.submit(new FakeFaceDetectorBackend.Image(2, frame));
+        }
+
+        completed.await();
+    }
+}
@@ -0,0 +1,51 @@
+package com.ionicframework.capacitor;
+
+import org.json.JSONArray;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// The landmark and contour serialization loops, for faces with the point counts of the on-device model.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FaceSerializationBenchmark {
+    @Param({"1", "5", "20"})
+    public int faceCount;
+
+    @Param({FaceResults.FORMAT_JSON, FaceResults.FORMAT_PACKED})
+    public String resultFormat;
+
+    private List<DetectedFace> faces;
+    private FieldProjection boundsOnly;
+
+    @Setup
+    public void setUp() {
+        faces = SyntheticFaces.create(faceCount, 42);
+        boundsOnly = FieldProjection.compile("bounds", "trackingId");
+    }
+
+    @Benchmark
+    public JSONArray allFields() throws Exception {
+        return FaceResults.toJSONArray(faces, FieldProjection.ALL, resultFormat);
+    }
+
+    @Benchmark
+    public JSONArray projectedFields() throws Exception {
+        return FaceResults.toJSONArray(faces, boundsOnly, resultFormat);
+    }
+
+    // Includes the string the bridge sends to the web view.
+    @Benchmark
+    public String allFieldsToString() throws Exception {
+        return FaceResults.toJSONArray(faces, FieldProjection.ALL, resultFormat).toString();
+    }
+}
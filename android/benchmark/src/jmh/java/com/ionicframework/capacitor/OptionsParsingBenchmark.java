@@ -0,0 +1,60 @@
+package com.ionicframework.capacitor;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+// Parsing the options passed with every call.
+// The benchmarks return Object, as the generated code outside of this package cannot name the package-private option classes.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OptionsParsingBenchmark {
+    private JSONObject data;
+    private JSONArray fields;
+
+    @Setup
+    public void setUp() throws Exception {
+        data = new JSONObject(
+                "{\"options\": {\"performanceMode\": 2, \"landmarkMode\": 2, \"contourMode\": 2, \"minFaceSize\": 0.15, \"enableTracking\": true},"
+                        + " \"fields\": [\"bounds\", \"landmarks.LEFT_EYE\", \"landmarks.RIGHT_EYE\", \"contours.FACE\", \"trackingId\"],"
+                        + " \"maxDimension\": 640, \"roi\": {\"x\": 10, \"y\": 20, \"width\": 300, \"height\": 400},"
+                        + " \"tracking\": {\"delta\": true}}"
+        );
+        fields = data.getJSONArray("fields");
+    }
+
+    @Benchmark
+    public Object faceDetectorConfig() {
+        return FaceDetectorConfig.fromJSONObject(data.optJSONObject("options"));
+    }
+
+    // Served from the cache of compiled projections.
+    @Benchmark
+    public Object fieldProjection() throws Exception {
+        return FieldProjection.fromJSONArray(fields);
+    }
+
+    @Benchmark
+    public Object fieldProjectionCompile() {
+        return FieldProjection.compile("bounds", "landmarks.LEFT_EYE", "landmarks.RIGHT_EYE", "contours.FACE", "trackingId");
+    }
+
+    @Benchmark
+    public Object imageDecodeOptions() {
+        return ImageDecodeOptions.fromJSONObject(data);
+    }
+
+    @Benchmark
+    public Object trackingOptions() {
+        return TrackingOptions.fromJSONObject(data);
+    }
+}
@@ -0,0 +1,53 @@
+package com.ionicframework.capacitor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// The native cost of a detectInImage call served from the result cache: hashing the Base64 content, looking up the faces and serializing them.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ResultCacheBenchmark {
+    // The size of the encoded image in bytes.
+    @Param({"65536", "1048576"})
+    public int imageBytes;
+
+    @Param({"json", "packed"})
+    public String resultFormat;
+
+    private String content;
+    private FaceResultCache cache;
+
+    @Setup
+    public void setUp() {
+        byte[] data = new byte[imageBytes / 4 * 3];
+        new Random(42).nextBytes(data);
+        content = Base64Codec.encode(data, 0, data.length);
+
+        cache = new FaceResultCache(FaceResultCache.DEFAULT_MAX_BYTES, Runnable::run);
+        cache.put(key(), SyntheticFaces.create(1, 42));
+    }
+
+    private String key() {
+        return FaceResultCache.key(FaceResultCache.contentId(content), FaceDetectorConfig.DEFAULT, FieldProjection.ALL, ImageDecodeOptions.DEFAULT);
+    }
+
+    @Benchmark
+    public String hash() {
+        return FaceResultCache.contentId(content);
+    }
+
+    @Benchmark
+    public Object hit() throws Exception {
+        return FaceResults.toJSONArray(cache.get(key()), FieldProjection.ALL, resultFormat);
+    }
+}
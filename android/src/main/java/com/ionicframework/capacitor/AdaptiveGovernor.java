@@ -0,0 +1,175 @@
+package com.ionicframework.capacitor;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+// Steps the detector settings down while the detections are slower than the latency budget, and back up once there is headroom.
+// Every level degrades the settings requested by the caller a bit further: contours are dropped first, then ACCURATE falls back to FAST, then the smallest face size and the input downscale are raised.
+// The latency is an exponentially weighted moving average, which is restarted on every change, so that every level is measured on its own before the next step.
+final class AdaptiveGovernor {
+    // The settings in effect for a detection.
+    static final class Settings {
+        final int level;
+        final FaceDetectorConfig config;
+        // The maximum dimension images are decoded at, or 0 for full resolution.
+        final int maxDimension;
+
+        // The average latency the level was chosen by.
+        double averageLatencyMs;
+
+        Settings(int level, FaceDetectorConfig config, int maxDimension) {
+            this.level = level;
+            this.config = config;
+            this.maxDimension = maxDimension;
+        }
+
+        boolean sameAs(Settings that) {
+            return config.equals(that.config) && maxDimension == that.maxDimension;
+        }
+
+        JSONObject toJSONObject() throws JSONException {
+            JSONObject object = new JSONObject();
+
+            object.put("level", level);
+            object.put("performanceMode", config.performanceMode);
+            object.put("landmarkMode", config.landmarkMode);
+            object.put("contourMode", config.contourMode);
+            object.put("minFaceSize", config.minFaceSize);
+            object.put("maxDimension", maxDimension);
+            object.put("averageLatencyMs", averageLatencyMs);
+
+            return object;
+        }
+    }
+
+    static final int MAX_LEVEL = 6;
+
+    // The number of detections measured at a level before the next step.
+    static final int MIN_SAMPLES = 5;
+
+    // The weight of the latest detection in the moving average.
+    private static final double SMOOTHING = 0.2;
+
+    // Steps back up only while the detections take less than this fraction of the budget, as the better settings may well double the latency.
+    private static final double HEADROOM = 0.5;
+
+    final AdaptiveOptions options;
+
+    // Whether the input can be downscaled, which is not the case for camera frames of a fixed resolution.
+    private final boolean downscale;
+
+    private final long budgetNanos;
+
+    private int level;
+
+    private double averageNanos;
+    private int samples;
+
+    // The settings requested by the latest caller, the levels are applied to.
+    private FaceDetectorConfig requestedConfig = FaceDetectorConfig.DEFAULT;
+    private int requestedMaxDimension;
+
+    AdaptiveGovernor(AdaptiveOptions options, boolean downscale) {
+        this.options = options;
+        this.downscale = downscale;
+        this.budgetNanos = options.budgetNanos();
+    }
+
+    // Returns the settings to detect with, the requested settings degraded to the current level.
+    synchronized Settings settings(FaceDetectorConfig config, int maxDimension) {
+        requestedConfig = config;
+        requestedMaxDimension = maxDimension;
+
+        Settings settings = apply(level, config, maxDimension, downscale);
+        settings.averageLatencyMs = averageNanos / 1e6;
+
+        return settings;
+    }
+
+    // Records the latency of a detection, which may step the level up or down.
+    synchronized void record(long latencyNanos) {
+        averageNanos = samples == 0 ? latencyNanos : averageNanos + SMOOTHING * (latencyNanos - averageNanos);
+        samples++;
+
+        if (samples < MIN_SAMPLES) {
+            return;
+        }
+
+        if (averageNanos > budgetNanos && level < MAX_LEVEL) {
+            step(1);
+        } else if (averageNanos < budgetNanos * HEADROOM && level > 0) {
+            step(-1);
+        }
+    }
+
+    synchronized int getLevel() {
+        return level;
+    }
+
+    synchronized double getAverageMs() {
+        return averageNanos / 1e6;
+    }
+
+    // Moves to the next level in the given direction which changes the effective settings, skipping levels which do not apply, e.g. dropping contours which were never requested.
+    private void step(int direction) {
+        Settings current = apply(level, requestedConfig, requestedMaxDimension, downscale);
+
+        int next = level;
+        do {
+            next += direction;
+        } while (next > 0 && next < MAX_LEVEL && apply(next, requestedConfig, requestedMaxDimension, downscale).sameAs(current));
+
+        if (direction < 0 || !apply(next, requestedConfig, requestedMaxDimension, downscale).sameAs(current)) {
+            level = next;
+        }
+
+        samples = 0;
+    }
+
+    // The requested settings degraded to the given level, every level including the steps of the levels below.
+    static Settings apply(int level, FaceDetectorConfig config, int maxDimension, boolean downscale) {
+        int performanceMode = config.performanceMode;
+        int contourMode = config.contourMode;
+        float minFaceSize = config.minFaceSize;
+
+        if (level >= 1) {
+            contourMode = FaceDetectorConfig.NO_CONTOURS;
+        }
+        if (level >= 2) {
+            performanceMode = FaceDetectorConfig.FAST;
+        }
+        if (level >= 3) {
+            minFaceSize = Math.max(minFaceSize, 0.2f);
+        }
+        if (level >= 4 && downscale) {
+            maxDimension = cap(maxDimension, 640);
+        }
+        if (level >= 5) {
+            minFaceSize = Math.max(minFaceSize, 0.3f);
+
+            if (downscale) {
+                maxDimension = cap(maxDimension, 480);
+            }
+        }
+        if (level >= 6 && downscale) {
+            maxDimension = cap(maxDimension, 320);
+        }
+
+        return new Settings(
+                level,
+                new FaceDetectorConfig(
+                        performanceMode,
+                        config.landmarkMode,
+                        config.classificationMode,
+                        contourMode,
+                        minFaceSize,
+                        config.enableTracking
+                ),
+                maxDimension
+        );
+    }
+
+    private static int cap(int maxDimension, int cap) {
+        return maxDimension == 0 ? cap : Math.min(maxDimension, cap);
+    }
+}
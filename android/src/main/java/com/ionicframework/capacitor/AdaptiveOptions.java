@@ -0,0 +1,81 @@
+package com.ionicframework.capacitor;
+
+import org.json.JSONObject;
+
+// Options of the adaptive governor trading detection accuracy for latency, passed as "adaptive".
+final class AdaptiveOptions {
+    static final AdaptiveOptions DEFAULT = new AdaptiveOptions(100, 0);
+
+    // The latency of a detection the governor aims to stay below.
+    final long targetLatencyMs;
+
+    // The frame rate the detections have to keep up with, or 0 for none.
+    final double targetFps;
+
+    AdaptiveOptions(long targetLatencyMs, double targetFps) {
+        this.targetLatencyMs = targetLatencyMs;
+        this.targetFps = targetFps;
+    }
+
+    // Parses the "adaptive" option, either true for the defaults or an object. Returns null if the governor is off.
+    static AdaptiveOptions fromJSONObject(JSONObject object) {
+        if (object == null) {
+            return null;
+        }
+
+        Object adaptive = object.opt("adaptive");
+
+        if (Boolean.TRUE.equals(adaptive)) {
+            return DEFAULT;
+        }
+        if (!(adaptive instanceof JSONObject)) {
+            return null;
+        }
+
+        JSONObject adaptiveObject = (JSONObject) adaptive;
+
+        AdaptiveOptions options = new AdaptiveOptions(
+                adaptiveObject.optLong("targetLatencyMs", DEFAULT.targetLatencyMs),
+                adaptiveObject.optDouble("targetFps", DEFAULT.targetFps)
+        );
+
+        if (options.targetLatencyMs <= 0) {
+            throw new IllegalArgumentException("targetLatencyMs must be positive");
+        }
+        if (options.targetFps < 0) {
+            throw new IllegalArgumentException("targetFps must not be negative");
+        }
+
+        return options;
+    }
+
+    // The latency budget of a detection, the tighter of the target latency and the frame interval.
+    long budgetNanos() {
+        long budgetNanos = targetLatencyMs * 1_000_000L;
+
+        if (targetFps > 0) {
+            budgetNanos = Math.min(budgetNanos, (long) (1e9 / targetFps));
+        }
+
+        return budgetNanos;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof AdaptiveOptions)) {
+            return false;
+        }
+
+        AdaptiveOptions that = (AdaptiveOptions) o;
+
+        return targetLatencyMs == that.targetLatencyMs && Double.compare(targetFps, that.targetFps) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (int) (targetLatencyMs ^ (targetLatencyMs >>> 32)) + Double.valueOf(targetFps).hashCode();
+    }
+}
@@ -0,0 +1,109 @@
+package com.ionicframework.capacitor;
+
+// Standard Base64 (RFC 4648) without line breaks.
+// Plain Java, as android.util.Base64 is not available off-device and java.util.Base64 requires API level 26.
+final class Base64Codec {
+    private static final char[] ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+
+    // The value of every character of the alphabet, -1 for the characters skipped while decoding.
+    private static final int[] VALUES = new int[128];
+
+    static {
+        for (int i = 0; i < VALUES.length; i++) {
+            VALUES[i] = -1;
+        }
+        for (int i = 0; i < ALPHABET.length; i++) {
+            VALUES[ALPHABET[i]] = i;
+        }
+    }
+
+    private Base64Codec() {
+    }
+
+    static int encodedLength(int length) {
+        return (length + 2) / 3 * 4;
+    }
+
+    static String encode(byte[] data, int offset, int length) {
+        char[] out = new char[encodedLength(length)];
+
+        int end = offset + length;
+        int i = offset;
+        int o = 0;
+
+        while (end - i >= 3) {
+            int bits = (data[i++] & 0xff) << 16 | (data[i++] & 0xff) << 8 | (data[i++] & 0xff);
+
+            out[o++] = ALPHABET[bits >>> 18 & 0x3f];
+            out[o++] = ALPHABET[bits >>> 12 & 0x3f];
+            out[o++] = ALPHABET[bits >>> 6 & 0x3f];
+            out[o++] = ALPHABET[bits & 0x3f];
+        }
+
+        int remaining = end - i;
+        if (remaining > 0) {
+            int bits = (data[i++] & 0xff) << 16;
+            if (remaining == 2) {
+                bits |= (data[i] & 0xff) << 8;
+            }
+
+            out[o++] = ALPHABET[bits >>> 18 & 0x3f];
+            out[o++] = ALPHABET[bits >>> 12 & 0x3f];
+            out[o++] = remaining == 2 ? ALPHABET[bits >>> 6 & 0x3f] : '=';
+            out[o] = '=';
+        }
+
+        return new String(out);
+    }
+
+    // An upper bound of the number of bytes decoded from the string, so that a buffer can be sized before decoding.
+    static int maxDecodedLength(String encoded) {
+        return (encoded.length() + 3) / 4 * 3;
+    }
+
+    // Decodes into the given buffer and returns the number of decoded bytes, without allocating.
+    // Like android.util.Base64.DEFAULT, characters outside of the alphabet, such as the line breaks of MIME encoded content, are skipped and padding is optional.
+    static int decode(String encoded, byte[] out) {
+        int bits = 0;
+        int count = 0;
+        int o = 0;
+
+        int length = encoded.length();
+        for (int i = 0; i < length; i++) {
+            char c = encoded.charAt(i);
+
+            if (c == '=') {
+                break;
+            }
+
+            int value = c < VALUES.length ? VALUES[c] : -1;
+            if (value < 0) {
+                continue;
+            }
+
+            bits = bits << 6 | value;
+            count++;
+
+            if (count == 4) {
+                out[o++] = (byte) (bits >>> 16);
+                out[o++] = (byte) (bits >>> 8);
+                out[o++] = (byte) bits;
+
+                bits = 0;
+                count = 0;
+            }
+        }
+
+        if (count == 1) {
+            throw new IllegalArgumentException("bad base-64");
+        }
+        if (count == 2) {
+            out[o++] = (byte) (bits >>> 4);
+        } else if (count == 3) {
+            out[o++] = (byte) (bits >>> 10);
+            out[o++] = (byte) (bits >>> 2);
+        }
+
+        return o;
+    }
+}
@@ -0,0 +1,281 @@
+package com.ionicframework.capacitor;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.os.SystemClock;
+
+import com.google.firebase.ml.vision.common.FirebaseVisionImage;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Detects faces in a list of images with one detector.
+// Images are decoded on the decode executor while earlier images are being detected. At most "parallelism" images are decoded or waiting for detection at any time, which bounds the memory held by decoded bitmaps.
+// The next image is only handed to the decode executor once an image completed, so no decode thread ever waits for a slot.
+class BatchDetection {
+    interface Listener {
+        void onImage(BatchDetection batch, int index, List<DetectedFace> faces);
+
+        void onImageError(BatchDetection batch, int index, Exception e);
+
+        void onFinished(BatchDetection batch);
+    }
+
+    static final int DEFAULT_PARALLELISM = 2;
+    // Larger values are clamped, as every image in flight may hold a full size bitmap.
+    static final int MAX_PARALLELISM = 8;
+
+    final String id;
+
+    private final Context context;
+    private final List<String> images;
+    private final ImageDecodeOptions decodeOptions;
+    private final BucketedPool<byte[]> bufferPool;
+    private final BucketedPool<Bitmap> bitmapPool;
+
+    private final FaceDetectorBackend<FirebaseVisionImage> faceDetectorBackend;
+    private final FaceDetectorConfig config;
+    private final FieldProjection projection;
+
+    private final Listener listener;
+
+    // Shared with other batches, and owned by the plugin.
+    private final Executor decodeExecutor;
+    // Delivers the detection results, so that the decode workers never wait for them.
+    private final Executor callbackExecutor;
+
+    private final int parallelism;
+
+    // The index of the next image to decode.
+    private final AtomicInteger nextIndex = new AtomicInteger();
+
+    private final AtomicInteger remaining;
+    private final AtomicInteger succeeded = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicInteger cancelled = new AtomicInteger();
+
+    private final AtomicLong decodeNanos = new AtomicLong();
+    private final AtomicLong detectNanos = new AtomicLong();
+
+    private volatile boolean cancelRequested;
+
+    private FaceDetectorBackend.Detector<FirebaseVisionImage> faceDetector;
+
+    private long startedAt;
+    private long finishedAt;
+
+    BatchDetection(
+            String id,
+            Context context,
+            List<String> images,
+            ImageDecodeOptions decodeOptions,
+            BucketedPool<byte[]> bufferPool,
+            BucketedPool<Bitmap> bitmapPool,
+            FaceDetectorBackend<FirebaseVisionImage> faceDetectorBackend,
+            FaceDetectorConfig config,
+            FieldProjection projection,
+            int parallelism,
+            Executor decodeExecutor,
+            Executor callbackExecutor,
+            Listener listener
+    ) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1");
+        }
+
+        this.id = id;
+        this.context = context;
+        this.images = images;
+        this.decodeOptions = decodeOptions;
+        this.bufferPool = bufferPool;
+        this.bitmapPool = bitmapPool;
+        this.faceDetectorBackend = faceDetectorBackend;
+        this.config = config;
+        this.projection = projection;
+        this.listener = listener;
+
+        this.parallelism = parallelism;
+        this.decodeExecutor = decodeExecutor;
+        this.callbackExecutor = callbackExecutor;
+        this.remaining = new AtomicInteger(images.size());
+    }
+
+    void start() {
+        startedAt = SystemClock.elapsedRealtimeNanos();
+
+        // One detector is shared by all images of the batch.
+        faceDetector = faceDetectorBackend.acquire(config);
+
+        if (images.isEmpty()) {
+            finish();
+            return;
+        }
+
+        for (int i = 0; i < parallelism; i++) {
+            next();
+        }
+    }
+
+    // Skips all images which did not start decoding yet. Images already being decoded or detected still complete.
+    void cancel() {
+        cancelRequested = true;
+    }
+
+    boolean isCancelled() {
+        return cancelRequested;
+    }
+
+    int getCount() {
+        return images.size();
+    }
+
+    int getSucceeded() {
+        return succeeded.get();
+    }
+
+    int getFailed() {
+        return failed.get();
+    }
+
+    int getCancelled() {
+        return cancelled.get();
+    }
+
+    double getDurationMs() {
+        return (finishedAt - startedAt) / 1e6;
+    }
+
+    // Average decode and detection time of the processed images.
+    double getAverageDecodeMs() {
+        int processed = succeeded.get() + failed.get();
+
+        return processed > 0 ? decodeNanos.get() / 1e6 / processed : 0;
+    }
+
+    double getAverageDetectMs() {
+        int processed = succeeded.get();
+
+        return processed > 0 ? detectNanos.get() / 1e6 / processed : 0;
+    }
+
+    // Hands the next image to the decode executor, once an earlier image freed its slot.
+    // Once the batch was cancelled, all remaining images are skipped instead.
+    private void next() {
+        while (true) {
+            final int index = nextIndex.getAndIncrement();
+            if (index >= images.size()) {
+                return;
+            }
+
+            if (cancelRequested) {
+                skip();
+                continue;
+            }
+
+            decodeExecutor.execute(() -> process(index));
+            return;
+        }
+    }
+
+    private void process(final int index) {
+        if (cancelRequested) {
+            skip();
+
+            next();
+            return;
+        }
+
+        final BitmapDecoder.DecodedImage decodedImage;
+        long decodeStartedAt = SystemClock.elapsedRealtimeNanos();
+        try {
+            decodedImage = ImageSource.decode(context, images.get(index), decodeOptions, bufferPool, bitmapPool);
+        } catch (Exception e) {
+            decodeNanos.addAndGet(SystemClock.elapsedRealtimeNanos() - decodeStartedAt);
+
+            fail(index, e);
+
+            next();
+            return;
+        }
+        decodeNanos.addAndGet(SystemClock.elapsedRealtimeNanos() - decodeStartedAt);
+
+        final long detectStartedAt = SystemClock.elapsedRealtimeNanos();
+
+        try {
+            faceDetector.detect(
+                    FirebaseVisionImage.fromBitmap(decodedImage.bitmap),
+                    decodedImage.transform,
+                    projection,
+                    callbackExecutor,
+                    new FaceDetectorBackend.Callback() {
+                        @Override
+                        public void onSuccess(List<DetectedFace> faces) {
+                            detectNanos.addAndGet(SystemClock.elapsedRealtimeNanos() - detectStartedAt);
+                            succeeded.incrementAndGet();
+
+                            complete();
+
+                            listener.onImage(BatchDetection.this, index, faces);
+
+                            countDown();
+                        }
+
+                        @Override
+                        public void onFailure(Exception e) {
+                            failed.incrementAndGet();
+
+                            complete();
+
+                            listener.onImageError(BatchDetection.this, index, e);
+
+                            countDown();
+                        }
+
+                        private void complete() {
+                            // The faces were copied, so the bitmap can be reused for the next images.
+                            BitmapDecoder.release(decodedImage.bitmap, bitmapPool);
+
+                            // Frees the slot of this image for the next one.
+                            next();
+                        }
+                    }
+            );
+        } catch (Exception e) {
+            BitmapDecoder.release(decodedImage.bitmap, bitmapPool);
+
+            fail(index, e);
+
+            next();
+        }
+    }
+
+    private void skip() {
+        cancelled.incrementAndGet();
+
+        countDown();
+    }
+
+    private void fail(int index, Exception e) {
+        failed.incrementAndGet();
+
+        listener.onImageError(this, index, e);
+
+        countDown();
+    }
+
+    private void countDown() {
+        if (remaining.decrementAndGet() == 0) {
+            finish();
+        }
+    }
+
+    private void finish() {
+        finishedAt = SystemClock.elapsedRealtimeNanos();
+
+        faceDetector.release();
+
+        listener.onFinished(this);
+    }
+}
@@ -0,0 +1,320 @@
+package com.ionicframework.capacitor;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+import androidx.exifinterface.media.ExifInterface;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+// Decodes images at the resolution needed for detection.
+// The bounds are read first, then the image (or its region of interest) is decoded with a sample size matching the requested maximum dimension, and scaled down to that dimension if the sampled image is still larger.
+// Given a pool, whole images are decoded into pooled bitmaps, so that a stream of images of the same size does not allocate a bitmap per image.
+final class BitmapDecoder {
+    static final class DecodedImage {
+        final Bitmap bitmap;
+
+        // Maps the coordinates of the decoded bitmap back to the original image.
+        final ImageTransform transform;
+
+        DecodedImage(Bitmap bitmap, ImageTransform transform) {
+            this.bitmap = bitmap;
+            this.transform = transform;
+        }
+    }
+
+    // Opens a new stream of an encoded image, which is read once for each decoding pass.
+    interface Source {
+        InputStream open() throws IOException;
+    }
+
+    private BitmapDecoder() {
+    }
+
+    static DecodedImage decode(byte[] data, int offset, int length, ImageDecodeOptions decodeOptions, BucketedPool<Bitmap> bitmapPool) throws IOException {
+        // https://developer.android.com/reference/android/graphics/BitmapFactory.Options
+        BitmapFactory.Options options = new BitmapFactory.Options();
+
+        // Reads the dimensions of the image without allocating its pixels.
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeByteArray(data, offset, length, options);
+
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            throw new IOException("Unable to decode image");
+        }
+
+        Rect region = region(options.outWidth, options.outHeight, decodeOptions);
+
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = ImageDecodeOptions.sampleSize(region.width(), region.height(), decodeOptions.maxDimension);
+        options.inPreferredConfig = config(decodeOptions);
+
+        Bitmap bitmap;
+
+        if (region.width() == options.outWidth && region.height() == options.outHeight) {
+            reuse(options, bitmapPool);
+
+            try {
+                bitmap = BitmapFactory.decodeByteArray(data, offset, length, options);
+            } catch (IllegalArgumentException e) {
+                if (options.inBitmap == null) {
+                    throw e;
+                }
+
+                // The pooled bitmap cannot be reused for this image, e.g. for a format not supporting it.
+                options.inBitmap.recycle();
+                options.inBitmap = null;
+
+                bitmap = BitmapFactory.decodeByteArray(data, offset, length, options);
+            }
+        } else {
+            // Decodes only the region of interest, without decoding the rest of the image.
+            // https://developer.android.com/reference/android/graphics/BitmapRegionDecoder
+            BitmapRegionDecoder regionDecoder = BitmapRegionDecoder.newInstance(data, offset, length, false);
+            try {
+                bitmap = regionDecoder.decodeRegion(region, options);
+            } finally {
+                regionDecoder.recycle();
+            }
+        }
+
+        if (bitmap == null) {
+            throw new IOException("Unable to decode image");
+        }
+
+        bitmap = fit(bitmap, decodeOptions.maxDimension, bitmapPool);
+
+        return new DecodedImage(
+                bitmap,
+                new ImageTransform(
+                        (float) region.width() / bitmap.getWidth(),
+                        (float) region.height() / bitmap.getHeight(),
+                        region.left,
+                        region.top
+                )
+        );
+    }
+
+    // Decodes an image streamed from a file or a content provider, without reading the encoded image into memory.
+    // The image is turned up-right according to its EXIF orientation, the region of interest and the mapped coordinates refer to the up-right image.
+    static DecodedImage decode(Source source, ImageDecodeOptions decodeOptions, BucketedPool<Bitmap> bitmapPool) throws IOException {
+        // Maps the stored image to the up-right image.
+        Matrix orientation = orientation(source);
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+
+        // Reads the dimensions of the image without allocating its pixels.
+        options.inJustDecodeBounds = true;
+        InputStream inputStream = source.open();
+        try {
+            BitmapFactory.decodeStream(inputStream, null, options);
+        } finally {
+            inputStream.close();
+        }
+
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            throw new IOException("Unable to decode image");
+        }
+
+        // Moves the up-right image back to the origin after rotating it.
+        RectF bounds = new RectF(0, 0, options.outWidth, options.outHeight);
+        orientation.mapRect(bounds);
+        orientation.postTranslate(-bounds.left, -bounds.top);
+
+        Rect region = region(Math.round(bounds.width()), Math.round(bounds.height()), decodeOptions);
+
+        // The region of interest within the stored image.
+        Matrix inverse = new Matrix();
+        orientation.invert(inverse);
+
+        RectF storedRegionF = new RectF(region);
+        inverse.mapRect(storedRegionF);
+
+        Rect storedRegion = new Rect();
+        storedRegionF.round(storedRegion);
+
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = ImageDecodeOptions.sampleSize(region.width(), region.height(), decodeOptions.maxDimension);
+        options.inPreferredConfig = config(decodeOptions);
+
+        Bitmap bitmap;
+
+        inputStream = source.open();
+        try {
+            if (storedRegion.width() == options.outWidth && storedRegion.height() == options.outHeight) {
+                // Only up-right bitmaps are decoded into pooled bitmaps, rotating creates a new bitmap anyway.
+                reuse(options, orientation.isIdentity() ? bitmapPool : null);
+
+                try {
+                    bitmap = BitmapFactory.decodeStream(inputStream, null, options);
+                } catch (IllegalArgumentException e) {
+                    if (options.inBitmap == null) {
+                        throw e;
+                    }
+
+                    options.inBitmap.recycle();
+                    options.inBitmap = null;
+
+                    // The stream was partly consumed by the failed attempt.
+                    inputStream.close();
+                    inputStream = source.open();
+
+                    bitmap = BitmapFactory.decodeStream(inputStream, null, options);
+                }
+            } else {
+                BitmapRegionDecoder regionDecoder = BitmapRegionDecoder.newInstance(inputStream, false);
+                try {
+                    bitmap = regionDecoder.decodeRegion(storedRegion, options);
+                } finally {
+                    regionDecoder.recycle();
+                }
+            }
+        } finally {
+            inputStream.close();
+        }
+
+        if (bitmap == null) {
+            throw new IOException("Unable to decode image");
+        }
+
+        if (!orientation.isIdentity()) {
+            // Scales the bitmap down to the maximum dimension in the same pass, as rotating does not change the larger dimension.
+            float scale = ImageDecodeOptions.scale(bitmap.getWidth(), bitmap.getHeight(), decodeOptions.maxDimension);
+            orientation.postScale(scale, scale);
+
+            // Rotates the downscaled bitmap, which is much cheaper than rotating the image at full resolution.
+            Bitmap rotatedBitmap = Bitmap.createBitmap(bitmap, 0, 0, bitmap.getWidth(), bitmap.getHeight(), orientation, true);
+
+            if (rotatedBitmap != bitmap) {
+                bitmap.recycle();
+            }
+
+            bitmap = rotatedBitmap;
+        } else {
+            bitmap = fit(bitmap, decodeOptions.maxDimension, bitmapPool);
+        }
+
+        return new DecodedImage(
+                bitmap,
+                new ImageTransform(
+                        (float) region.width() / bitmap.getWidth(),
+                        (float) region.height() / bitmap.getHeight(),
+                        region.left,
+                        region.top
+                )
+        );
+    }
+
+    // Returns the rotation (and mirroring) turning the stored image up-right, read from its EXIF orientation.
+    // https://developer.android.com/reference/androidx/exifinterface/media/ExifInterface
+    static Matrix orientation(Source source) throws IOException {
+        Matrix matrix = new Matrix();
+
+        InputStream inputStream = source.open();
+        try {
+            ExifInterface exifInterface = new ExifInterface(inputStream);
+
+            // The image is flipped horizontally before it is rotated.
+            if (exifInterface.isFlipped()) {
+                matrix.postScale(-1, 1);
+            }
+            matrix.postRotate(exifInterface.getRotationDegrees());
+        } finally {
+            inputStream.close();
+        }
+
+        return matrix;
+    }
+
+    // Scales the sampled bitmap down to the maximum dimension, which the power of two sample size may exceed by up to twice.
+    // The sampled bitmap is handed back to the pool, and the scaled one is drawn into a pooled bitmap if there is one.
+    private static Bitmap fit(Bitmap bitmap, int maxDimension, BucketedPool<Bitmap> bitmapPool) {
+        float scale = ImageDecodeOptions.scale(bitmap.getWidth(), bitmap.getHeight(), maxDimension);
+        if (scale == 1) {
+            return bitmap;
+        }
+
+        int width = ImageDecodeOptions.scaled(bitmap.getWidth(), scale);
+        int height = ImageDecodeOptions.scaled(bitmap.getHeight(), scale);
+
+        Bitmap.Config config = bitmap.getConfig() != null ? bitmap.getConfig() : Bitmap.Config.ARGB_8888;
+
+        Bitmap scaledBitmap = bitmapPool != null ? bitmapPool.acquire(byteCount(width, height, 1, config)) : null;
+        if (scaledBitmap != null) {
+            // A pooled bitmap with a large enough allocation takes the new dimensions, its old pixels are cleared.
+            // https://developer.android.com/reference/android/graphics/Bitmap#reconfigure(int,%20int,%20android.graphics.Bitmap.Config)
+            scaledBitmap.reconfigure(width, height, config);
+            scaledBitmap.eraseColor(Color.TRANSPARENT);
+        } else {
+            scaledBitmap = Bitmap.createBitmap(width, height, config);
+        }
+
+        Matrix matrix = new Matrix();
+        matrix.setScale((float) width / bitmap.getWidth(), (float) height / bitmap.getHeight());
+
+        // Filtering averages the sampled pixels, like createScaledBitmap() does.
+        new Canvas(scaledBitmap).drawBitmap(bitmap, matrix, new Paint(Paint.FILTER_BITMAP_FLAG));
+
+        release(bitmap, bitmapPool);
+
+        return scaledBitmap;
+    }
+
+    // Decodes into a pooled bitmap large enough for the sampled image, if there is one.
+    // BitmapRegionDecoder never resizes the bitmap it decodes into, so only whole images reuse pooled bitmaps.
+    // https://developer.android.com/reference/android/graphics/BitmapFactory.Options#inBitmap
+    private static void reuse(BitmapFactory.Options options, BucketedPool<Bitmap> bitmapPool) {
+        if (bitmapPool == null) {
+            return;
+        }
+
+        // Only mutable bitmaps can be decoded into, and later handed back to the pool.
+        options.inMutable = true;
+        options.inBitmap = bitmapPool.acquire(byteCount(options.outWidth, options.outHeight, options.inSampleSize, options.inPreferredConfig));
+    }
+
+    // The number of bytes of the bitmap decoded from an image of the given size.
+    static int byteCount(int width, int height, int sampleSize, Bitmap.Config config) {
+        int bytesPerPixel = config == Bitmap.Config.RGB_565 ? 2 : 4;
+
+        // Sampled dimensions are rounded up.
+        return ((width + sampleSize - 1) / sampleSize) * ((height + sampleSize - 1) / sampleSize) * bytesPerPixel;
+    }
+
+    // Hands a decoded bitmap back to the pool once it is no longer used, or recycles it if it cannot be reused.
+    static void release(Bitmap bitmap, BucketedPool<Bitmap> bitmapPool) {
+        if (bitmapPool != null && bitmap.isMutable() && !bitmap.isRecycled()) {
+            bitmapPool.release(bitmap);
+        } else {
+            bitmap.recycle();
+        }
+    }
+
+    // Returns the region of interest clipped to the image, or the whole image.
+    static Rect region(int width, int height, ImageDecodeOptions decodeOptions) throws IOException {
+        Rect region = new Rect(0, 0, width, height);
+
+        ImageDecodeOptions.Region roi = decodeOptions.roi;
+        if (roi != null) {
+            if (!region.intersect(roi.left, roi.top, roi.left + roi.width, roi.top + roi.height)) {
+                throw new IOException("Region of interest is outside of the image");
+            }
+        }
+
+        return region;
+    }
+
+    static Bitmap.Config config(ImageDecodeOptions decodeOptions) {
+        return ImageDecodeOptions.RGB_565.equals(decodeOptions.preferredConfig)
+                ? Bitmap.Config.RGB_565
+                : Bitmap.Config.ARGB_8888;
+    }
+}
@@ -0,0 +1,170 @@
+package com.ionicframework.capacitor;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+// A pool of reusable items, such as bitmaps or byte buffers, bucketed by their size in bytes.
+// Every power of two is split into SUB_BUCKETS LogLinearBuckets, an item is pooled in the bucket its size falls into. Requests are served from the bucket of the requested size or the few buckets above, so items are never much larger than needed.
+// The pool retains at most maxBytes, evicting the least recently released items first.
+final class BucketedPool<T> {
+    interface Sizer<T> {
+        int sizeOf(T item);
+    }
+
+    // Called with every item leaving the pool other than through acquire(), e.g. to recycle a bitmap.
+    interface Evictor<T> {
+        void onEvicted(T item);
+    }
+
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    // Items at most this many buckets above the requested size are handed out, i.e. at most twice as large.
+    private static final int MAX_BUCKET_SLACK = SUB_BUCKETS;
+
+    private final Sizer<T> sizer;
+    private final Evictor<T> evictor;
+
+    private long maxBytes;
+
+    private final Map<Integer, ArrayDeque<T>> buckets = new HashMap<>();
+    // All pooled items, least recently released first.
+    private final ArrayDeque<T> items = new ArrayDeque<>();
+
+    private long retainedBytes;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    BucketedPool(long maxBytes, Sizer<T> sizer, Evictor<T> evictor) {
+        this.maxBytes = maxBytes;
+        this.sizer = sizer;
+        this.evictor = evictor;
+    }
+
+    // Returns a pooled item of at least the given size, or null if there is none.
+    synchronized T acquire(int minSize) {
+        int bucket = floorBucket(minSize);
+
+        for (int b = bucket; b <= bucket + MAX_BUCKET_SLACK; b++) {
+            ArrayDeque<T> bucketItems = buckets.get(b);
+            if (bucketItems == null) {
+                continue;
+            }
+
+            // Items of the first bucket may be smaller than requested, all further buckets only hold larger items.
+            Iterator<T> iterator = bucketItems.descendingIterator();
+            while (iterator.hasNext()) {
+                T item = iterator.next();
+
+                int size = sizer.sizeOf(item);
+                if (size >= minSize) {
+                    iterator.remove();
+
+                    items.removeFirstOccurrence(item);
+                    retainedBytes -= size;
+
+                    hits++;
+                    return item;
+                }
+            }
+        }
+
+        misses++;
+        return null;
+    }
+
+    // Hands an item back for reuse. The caller must no longer use it.
+    synchronized void release(T item) {
+        int size = sizer.sizeOf(item);
+
+        if (size > maxBytes) {
+            evictions++;
+            evictor.onEvicted(item);
+            return;
+        }
+
+        int bucket = floorBucket(size);
+
+        ArrayDeque<T> bucketItems = buckets.get(bucket);
+        if (bucketItems == null) {
+            bucketItems = new ArrayDeque<>();
+            buckets.put(bucket, bucketItems);
+        }
+        bucketItems.addLast(item);
+
+        items.addLast(item);
+        retainedBytes += size;
+
+        trimToSize(maxBytes);
+    }
+
+    // Evicts the least recently released items until at most the given number of bytes is retained.
+    synchronized void trimToSize(long bytes) {
+        while (retainedBytes > bytes && !items.isEmpty()) {
+            T item = items.pollFirst();
+
+            int size = sizer.sizeOf(item);
+            buckets.get(floorBucket(size)).removeFirstOccurrence(item);
+            retainedBytes -= size;
+
+            evictions++;
+            evictor.onEvicted(item);
+        }
+    }
+
+    synchronized void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+
+        trimToSize(maxBytes);
+    }
+
+    synchronized void clear() {
+        trimToSize(0);
+    }
+
+    synchronized long getRetainedBytes() {
+        return retainedBytes;
+    }
+
+    synchronized int size() {
+        return items.size();
+    }
+
+    synchronized long getHits() {
+        return hits;
+    }
+
+    synchronized long getMisses() {
+        return misses;
+    }
+
+    synchronized JSONObject toJSONObject() throws JSONException {
+        JSONObject object = new JSONObject();
+
+        object.put("hits", hits);
+        object.put("misses", misses);
+        object.put("hitRate", hits + misses > 0 ? (double) hits / (hits + misses) : 0);
+        object.put("evictions", evictions);
+        object.put("count", items.size());
+        object.put("retainedBytes", retainedBytes);
+        object.put("maxBytes", maxBytes);
+
+        return object;
+    }
+
+    static int floorBucket(int size) {
+        return LogLinearBuckets.bucket(size, SUB_BUCKET_BITS);
+    }
+
+    // The smallest size of the bucket.
+    static long lowerBound(int bucket) {
+        return LogLinearBuckets.lowerBound(bucket, SUB_BUCKET_BITS);
+    }
+}
@@ -0,0 +1,71 @@
+package com.ionicframework.capacitor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// A detected face, copied out of FirebaseVisionFace with its coordinates already mapped to the original image.
+// Plain Java, so that the result encoders can run (and be measured) without the Firebase SDK.
+// https://firebase.google.com/docs/reference/android/com/google/firebase/ml/vision/face/FirebaseVisionFace
+final class DetectedFace {
+    // https://firebase.google.com/docs/reference/android/com/google/firebase/ml/vision/face/FirebaseVisionFace#constants
+    static final float UNCOMPUTED_PROBABILITY = -1.0f;
+    static final int INVALID_ID = -1;
+
+    // A point on the face, such as an eye, nose, or mouth.
+    // https://firebase.google.com/docs/reference/android/com/google/firebase/ml/vision/face/FirebaseVisionFaceLandmark
+    static final class Landmark {
+        // The FirebaseVisionFaceLandmark.LandmarkType type.
+        final int type;
+
+        float x;
+        float y;
+        // NaN if the depth is unknown.
+        float z;
+
+        Landmark(int type, float x, float y, float z) {
+            this.type = type;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+        }
+    }
+
+    // A list of points on the face, such as the outline of the mouth.
+    // https://firebase.google.com/docs/reference/android/com/google/firebase/ml/vision/face/FirebaseVisionFaceContour
+    static final class Contour {
+        // The FirebaseVisionFaceContour.ContourType type.
+        final int type;
+
+        // Consecutive x, y and z coordinates, z is NaN if the depth is unknown.
+        final float[] points;
+
+        Contour(int type, float[] points) {
+            this.type = type;
+            this.points = points;
+        }
+
+        int size() {
+            return points.length / 3;
+        }
+    }
+
+    // The axis-aligned bounding rectangle of the face.
+    int left;
+    int top;
+    int right;
+    int bottom;
+
+    final List<Landmark> landmarks = new ArrayList<>();
+    final List<Contour> contours = new ArrayList<>();
+
+    // The rotation of the face about the vertical axis of the image.
+    float headEulerAngleY;
+    // The rotation of the face about the axis pointing out of the image.
+    float headEulerAngleZ;
+
+    float leftEyeOpenProbability = UNCOMPUTED_PROBABILITY;
+    float rightEyeOpenProbability = UNCOMPUTED_PROBABILITY;
+    float smilingProbability = UNCOMPUTED_PROBABILITY;
+
+    int trackingId = INVALID_ID;
+}
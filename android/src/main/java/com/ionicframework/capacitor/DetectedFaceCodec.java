@@ -0,0 +1,137 @@
+package com.ionicframework.capacitor;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Reads and writes detected faces in a compact binary format, used by the disk tier of the result cache.
+//
+// The format is a header (magic, version, face count), followed by every face: the bounds as 4 ints, the Euler angles and probabilities as 5 floats, the tracking id,
+// the landmarks as a count and (type, x, y, z) records, and the contours as a count and (type, point count, x, y, z...) records.
+// All values are big-endian, as written by DataOutputStream.
+final class DetectedFaceCodec {
+    private static final int MAGIC = 0x464d5646;
+    private static final int VERSION = 1;
+
+    // The smallest number of bytes of every record, which bounds the counts of a file by its length.
+    private static final int FACE_BYTES = 4 * 4 + 5 * 4 + 4 + 4 + 4;
+    private static final int LANDMARK_BYTES = 4 * 4;
+    private static final int CONTOUR_BYTES = 4 + 4;
+    private static final int POINT_BYTES = 3 * 4;
+
+    private DetectedFaceCodec() {
+    }
+
+    static void write(DataOutputStream out, List<DetectedFace> faces) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeInt(faces.size());
+
+        for (DetectedFace face : faces) {
+            out.writeInt(face.left);
+            out.writeInt(face.top);
+            out.writeInt(face.right);
+            out.writeInt(face.bottom);
+
+            out.writeFloat(face.headEulerAngleY);
+            out.writeFloat(face.headEulerAngleZ);
+            out.writeFloat(face.leftEyeOpenProbability);
+            out.writeFloat(face.rightEyeOpenProbability);
+            out.writeFloat(face.smilingProbability);
+
+            out.writeInt(face.trackingId);
+
+            out.writeInt(face.landmarks.size());
+            for (DetectedFace.Landmark landmark : face.landmarks) {
+                out.writeInt(landmark.type);
+                out.writeFloat(landmark.x);
+                out.writeFloat(landmark.y);
+                out.writeFloat(landmark.z);
+            }
+
+            out.writeInt(face.contours.size());
+            for (DetectedFace.Contour contour : face.contours) {
+                out.writeInt(contour.type);
+                out.writeInt(contour.size());
+                for (float value : contour.points) {
+                    out.writeFloat(value);
+                }
+            }
+        }
+    }
+
+    // Reads the faces from a stream of at most the given number of bytes.
+    // Counts which cannot fit into these bytes, e.g. of a corrupt file, fail with an IOException before anything is allocated for them.
+    static List<DetectedFace> read(DataInputStream in, long length) throws IOException {
+        if (in.readInt() != MAGIC || in.readByte() != VERSION) {
+            throw new IOException("Unsupported format");
+        }
+
+        int faceCount = readCount(in, FACE_BYTES, length);
+        List<DetectedFace> faces = new ArrayList<>(faceCount);
+
+        for (int i = 0; i < faceCount; i++) {
+            DetectedFace face = new DetectedFace();
+
+            face.left = in.readInt();
+            face.top = in.readInt();
+            face.right = in.readInt();
+            face.bottom = in.readInt();
+
+            face.headEulerAngleY = in.readFloat();
+            face.headEulerAngleZ = in.readFloat();
+            face.leftEyeOpenProbability = in.readFloat();
+            face.rightEyeOpenProbability = in.readFloat();
+            face.smilingProbability = in.readFloat();
+
+            face.trackingId = in.readInt();
+
+            int landmarkCount = readCount(in, LANDMARK_BYTES, length);
+            for (int j = 0; j < landmarkCount; j++) {
+                face.landmarks.add(new DetectedFace.Landmark(in.readInt(), in.readFloat(), in.readFloat(), in.readFloat()));
+            }
+
+            int contourCount = readCount(in, CONTOUR_BYTES, length);
+            for (int j = 0; j < contourCount; j++) {
+                int type = in.readInt();
+
+                float[] points = new float[readCount(in, POINT_BYTES, length) * 3];
+                for (int k = 0; k < points.length; k++) {
+                    points[k] = in.readFloat();
+                }
+
+                face.contours.add(new DetectedFace.Contour(type, points));
+            }
+
+            faces.add(face);
+        }
+
+        return faces;
+    }
+
+    private static int readCount(DataInputStream in, int recordBytes, long length) throws IOException {
+        int count = in.readInt();
+        if (count < 0 || (long) count * recordBytes > length) {
+            throw new IOException("Invalid count " + count);
+        }
+
+        return count;
+    }
+
+    // The approximate number of bytes held by the faces in memory.
+    static int sizeOf(List<DetectedFace> faces) {
+        int size = 32;
+
+        for (DetectedFace face : faces) {
+            size += 96 + face.landmarks.size() * 32;
+
+            for (DetectedFace.Contour contour : face.contours) {
+                size += 32 + contour.points.length * 4;
+            }
+        }
+
+        return size;
+    }
+}
@@ -0,0 +1,68 @@
+package com.ionicframework.capacitor;
+
+import android.os.Process;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Runs the decoding, the detection callbacks and the building of the results of detectInImage calls, so that none of it competes with the main thread.
+// A fixed number of threads which can be changed while running. The threads run at background priority, so the scheduler favors the UI thread over them.
+final class DetectionExecutor implements Executor {
+    static final int DEFAULT_THREADS = 2;
+
+    private final ThreadPoolExecutor executor;
+
+    DetectionExecutor(final String name, int threads) {
+        final AtomicInteger threadCount = new AtomicInteger();
+
+        ThreadFactory threadFactory = (final Runnable runnable) -> {
+            Thread thread = new Thread(
+                    () -> {
+                        // Sets the Linux nice value of the thread, which the Java priority barely changes on Android.
+                        // https://developer.android.com/reference/android/os/Process#setThreadPriority(int)
+                        Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+
+                        runnable.run();
+                    },
+                    name + "-" + threadCount.incrementAndGet()
+            );
+            thread.setDaemon(true);
+
+            return thread;
+        };
+
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(), threadFactory);
+    }
+
+    @Override
+    public void execute(Runnable runnable) {
+        executor.execute(runnable);
+    }
+
+    synchronized void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+
+        // The core size must never exceed the maximum size.
+        if (threads > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(threads);
+            executor.setCorePoolSize(threads);
+        } else {
+            executor.setCorePoolSize(threads);
+            executor.setMaximumPoolSize(threads);
+        }
+    }
+
+    synchronized int getThreads() {
+        return executor.getMaximumPoolSize();
+    }
+
+    void shutdown() {
+        executor.shutdown();
+    }
+}
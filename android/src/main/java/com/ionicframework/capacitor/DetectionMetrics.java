@@ -0,0 +1,134 @@
+package com.ionicframework.capacitor;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Aggregates the timings of all detectInImage calls into histograms, read through getMetrics().
+final class DetectionMetrics {
+    // Serializing a result a second time to measure its length costs as much as building it, so only every n-th result is measured unless the call asked for its timings.
+    static final int RESULT_SIZE_SAMPLE_INTERVAL = 16;
+
+    private final LatencyHistogram cacheLookup = new LatencyHistogram();
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+    private final LatencyHistogram base64Decode = new LatencyHistogram();
+    private final LatencyHistogram bitmapDecode = new LatencyHistogram();
+    private final LatencyHistogram detectorAcquire = new LatencyHistogram();
+    private final LatencyHistogram inference = new LatencyHistogram();
+    private final LatencyHistogram serialize = new LatencyHistogram();
+    private final LatencyHistogram total = new LatencyHistogram();
+
+    private final LatencyHistogram bitmapBytes = new LatencyHistogram();
+    private final LatencyHistogram resultBytes = new LatencyHistogram();
+
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong results = new AtomicLong();
+
+    void record(DetectionTimings timings) {
+        if (timings.cached) {
+            // Cached faces skipped the other stages, which are not skewed by zeros.
+            cacheLookup.record(timings.cacheLookupNanos);
+            serialize.record(timings.serializeNanos);
+            total.record(timings.totalNanos);
+
+            if (timings.resultBytes >= 0) {
+                resultBytes.record(timings.resultBytes);
+            }
+            return;
+        }
+
+        queueWait.record(timings.queueWaitNanos);
+        if (timings.base64DecodeNanos > 0) {
+            base64Decode.record(timings.base64DecodeNanos);
+        }
+        bitmapDecode.record(timings.bitmapDecodeNanos);
+        detectorAcquire.record(timings.detectorAcquireNanos);
+        inference.record(timings.inferenceNanos);
+        serialize.record(timings.serializeNanos);
+        total.record(timings.totalNanos);
+
+        bitmapBytes.record(timings.bitmapBytes);
+        if (timings.resultBytes >= 0) {
+            resultBytes.record(timings.resultBytes);
+        }
+    }
+
+    void recordFailure() {
+        failures.incrementAndGet();
+    }
+
+    // Whether the length of the next result should be measured.
+    boolean sampleResultSize() {
+        return results.getAndIncrement() % RESULT_SIZE_SAMPLE_INTERVAL == 0;
+    }
+
+    void reset() {
+        cacheLookup.reset();
+        queueWait.reset();
+        base64Decode.reset();
+        bitmapDecode.reset();
+        detectorAcquire.reset();
+        inference.reset();
+        serialize.reset();
+        total.reset();
+
+        bitmapBytes.reset();
+        resultBytes.reset();
+
+        failures.set(0);
+        results.set(0);
+    }
+
+    JSONObject toJSONObject() throws JSONException {
+        JSONObject stages = new JSONObject();
+        stages.put("cacheLookup", durations(cacheLookup));
+        stages.put("queueWait", durations(queueWait));
+        stages.put("base64Decode", durations(base64Decode));
+        stages.put("bitmapDecode", durations(bitmapDecode));
+        stages.put("detectorAcquire", durations(detectorAcquire));
+        stages.put("inference", durations(inference));
+        stages.put("serialize", durations(serialize));
+        stages.put("total", durations(total));
+
+        JSONObject sizes = new JSONObject();
+        sizes.put("bitmapBytes", sizes(bitmapBytes));
+        sizes.put("resultBytes", sizes(resultBytes));
+
+        JSONObject object = new JSONObject();
+        object.put("count", total.getCount());
+        object.put("cached", cacheLookup.getCount());
+        object.put("failures", failures.get());
+        object.put("stages", stages);
+        object.put("sizes", sizes);
+
+        return object;
+    }
+
+    // Converts a histogram of nanoseconds into milliseconds.
+    private static JSONObject durations(LatencyHistogram histogram) throws JSONException {
+        JSONObject object = new JSONObject();
+
+        object.put("count", histogram.getCount());
+        object.put("meanMs", histogram.getMean() / 1e6);
+        object.put("p50Ms", histogram.getPercentile(50) / 1e6);
+        object.put("p95Ms", histogram.getPercentile(95) / 1e6);
+        object.put("p99Ms", histogram.getPercentile(99) / 1e6);
+        object.put("maxMs", histogram.getMax() / 1e6);
+
+        return object;
+    }
+
+    private static JSONObject sizes(LatencyHistogram histogram) throws JSONException {
+        JSONObject object = new JSONObject();
+
+        object.put("count", histogram.getCount());
+        object.put("mean", histogram.getMean());
+        object.put("p50", histogram.getPercentile(50));
+        object.put("p95", histogram.getPercentile(95));
+        object.put("p99", histogram.getPercentile(99));
+        object.put("max", histogram.getMax());
+
+        return object;
+    }
+}
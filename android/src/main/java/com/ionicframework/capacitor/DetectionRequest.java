@@ -0,0 +1,61 @@
+package com.ionicframework.capacitor;
+
+// A detectInImage call which can be cancelled by its request id, or is abandoned once its deadline passed.
+// The call checks the request between its stages, so that it stops before decoding, before detecting and before building its result.
+final class DetectionRequest<C> {
+    // Rejection codes of abandoned calls.
+    static final String CANCELLED = "CANCELLED";
+    static final String DEADLINE_EXCEEDED = "DEADLINE_EXCEEDED";
+
+    // The request id passed by the caller, or null if the call cannot be cancelled.
+    final String id;
+
+    final C call;
+
+    // The time the call was submitted at, the deadline counts from it.
+    final long submittedAtNanos;
+
+    // The key of the result cache, or null if the call bypasses it.
+    final String cacheKey;
+
+    // Long.MAX_VALUE if the call has no deadline.
+    private final long deadlineNanos;
+
+    private volatile boolean cancelled;
+
+    DetectionRequest(String id, C call, long submittedAtNanos, long deadlineMs) {
+        this(id, call, submittedAtNanos, deadlineMs, null);
+    }
+
+    DetectionRequest(String id, C call, long submittedAtNanos, long deadlineMs, String cacheKey) {
+        if (deadlineMs < 0) {
+            throw new IllegalArgumentException("deadlineMs must not be negative");
+        }
+
+        this.id = id;
+        this.call = call;
+        this.submittedAtNanos = submittedAtNanos;
+        this.cacheKey = cacheKey;
+        this.deadlineNanos = deadlineMs > 0 ? submittedAtNanos + deadlineMs * 1_000_000L : Long.MAX_VALUE;
+    }
+
+    void cancel() {
+        cancelled = true;
+    }
+
+    boolean isCancelled() {
+        return cancelled;
+    }
+
+    // Returns the rejection code if the call should stop at the given time, or null to go on.
+    String abandonReason(long nowNanos) {
+        if (cancelled) {
+            return CANCELLED;
+        }
+        if (deadlineNanos != Long.MAX_VALUE && nowNanos - deadlineNanos > 0) {
+            return DEADLINE_EXCEEDED;
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,52 @@
+package com.ionicframework.capacitor;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+// The durations of the stages of one detectInImage call, and the sizes of its decoded image and result.
+// Durations are in nanoseconds, a stage which did not run stays at 0.
+final class DetectionTimings {
+    // Whether the faces were served from the result cache, which skips the queue, decoding and detection.
+    boolean cached;
+    // Hashing the image and looking it up in the result cache, only measured for cached faces.
+    long cacheLookupNanos;
+    // Waiting for the frame scheduler.
+    long queueWaitNanos;
+    // Decoding the Base64 string passed through the bridge.
+    long base64DecodeNanos;
+    // Decoding the image into a bitmap.
+    long bitmapDecodeNanos;
+    // Getting a cached detector, or creating one.
+    long detectorAcquireNanos;
+    // Running the detector.
+    long inferenceNanos;
+    // Converting the faces into the result passed through the bridge.
+    long serializeNanos;
+    // From dispatching the call until its result was built, without the queue wait.
+    long totalNanos;
+
+    long bitmapBytes;
+    // The length of the serialized result, or -1 if it was not measured.
+    long resultBytes = -1;
+
+    JSONObject toJSONObject() throws JSONException {
+        JSONObject object = new JSONObject();
+
+        object.put("cached", cached);
+        object.put("cacheLookupMs", cacheLookupNanos / 1e6);
+        object.put("queueWaitMs", queueWaitNanos / 1e6);
+        object.put("base64DecodeMs", base64DecodeNanos / 1e6);
+        object.put("bitmapDecodeMs", bitmapDecodeNanos / 1e6);
+        object.put("detectorAcquireMs", detectorAcquireNanos / 1e6);
+        object.put("inferenceMs", inferenceNanos / 1e6);
+        object.put("serializeMs", serializeNanos / 1e6);
+        object.put("totalMs", totalNanos / 1e6);
+
+        object.put("bitmapBytes", bitmapBytes);
+        if (resultBytes >= 0) {
+            object.put("resultBytes", resultBytes);
+        }
+
+        return object;
+    }
+}
@@ -0,0 +1,213 @@
+package com.ionicframework.capacitor;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+// Keeps detectors (and their loaded models) alive between calls, keyed by their normalized options.
+// Detectors are reference counted, so a detector evicted from the cache is only closed once its in-flight tasks completed.
+// Detectors above the size limit are evicted least recently used first, and detectors idle for longer than the idle timeout are closed as well.
+// Idle detectors are closed by a task on the scheduler, so their models are released even if the app stops detecting.
+final class DetectorCache<K, D extends Closeable> {
+    interface Factory<K, D> {
+        D create(K key);
+    }
+
+    // Reports detectors which failed to close.
+    interface ErrorHandler<K> {
+        void onCloseFailed(K key, IOException e);
+    }
+
+    // A monotonic clock in milliseconds, SystemClock.elapsedRealtime() on the device.
+    interface Clock {
+        long millis();
+    }
+
+    static final long DEFAULT_IDLE_TIMEOUT_MS = 60 * 1000;
+
+    // Keeps idle detectors until they are evicted by the size limit or clear().
+    static final long NO_IDLE_TIMEOUT = 0;
+
+    static final class Entry<K, D> {
+        final K key;
+        final D detector;
+
+        private int references;
+        private long lastUsed;
+        private boolean evicted;
+
+        private Entry(K key, D detector) {
+            this.key = key;
+            this.detector = detector;
+        }
+    }
+
+    private final Factory<K, D> factory;
+    private final ErrorHandler<K> errorHandler;
+    private final int maxDetectors;
+    private final long idleTimeoutMs;
+    private final Clock clock;
+    // Runs the idle eviction, or null to only evict idle detectors while the cache is used.
+    private final ScheduledExecutorService scheduler;
+
+    // Iterates from the least recently used to the most recently used detector.
+    private final LinkedHashMap<K, Entry<K, D>> entries = new LinkedHashMap<>(8, 0.75f, true);
+
+    private long created;
+
+    // The pending idle eviction, due when the detector idle for the longest reaches the idle timeout.
+    private ScheduledFuture<?> idleEviction;
+
+    DetectorCache(
+            Factory<K, D> factory,
+            ErrorHandler<K> errorHandler,
+            int maxDetectors,
+            long idleTimeoutMs,
+            Clock clock,
+            ScheduledExecutorService scheduler
+    ) {
+        this.factory = factory;
+        this.errorHandler = errorHandler;
+        this.maxDetectors = maxDetectors;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.clock = clock;
+        this.scheduler = scheduler;
+    }
+
+    // Returns a detector for the given options, creating it if needed.
+    // Every acquired entry must be handed back through release() once its task completed.
+    synchronized Entry<K, D> acquire(K key) {
+        long now = clock.millis();
+
+        Entry<K, D> entry = entries.get(key);
+        if (entry == null) {
+            entry = new Entry<>(key, factory.create(key));
+            created++;
+
+            entries.put(key, entry);
+        }
+
+        entry.references++;
+        entry.lastUsed = now;
+
+        evict(now);
+
+        return entry;
+    }
+
+    synchronized void release(Entry<K, D> entry) {
+        entry.references--;
+        entry.lastUsed = clock.millis();
+
+        if (entry.evicted) {
+            close(entry);
+        }
+
+        evict(entry.lastUsed);
+
+        scheduleIdleEviction(entry.lastUsed);
+    }
+
+    // Evicts all detectors. Detectors still in use are closed as soon as they are released.
+    synchronized void clear() {
+        if (idleEviction != null) {
+            idleEviction.cancel(false);
+            idleEviction = null;
+        }
+
+        List<Entry<K, D>> evicted = new ArrayList<>(entries.values());
+
+        entries.clear();
+
+        for (Entry<K, D> entry : evicted) {
+            entry.evicted = true;
+
+            close(entry);
+        }
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    // The number of detectors created, which stays at one per distinct options as long as the detectors are reused.
+    synchronized long getCreated() {
+        return created;
+    }
+
+    // Drops the least recently used detectors above the size limit and every detector that has been idle for too long.
+    private void evict(long now) {
+        int excess = entries.size() - maxDetectors;
+
+        Iterator<Map.Entry<K, Entry<K, D>>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Entry<K, D> entry = iterator.next().getValue();
+
+            boolean idle = idleTimeoutMs > 0 && entry.references == 0 && now - entry.lastUsed >= idleTimeoutMs;
+
+            if (excess > 0 || idle) {
+                iterator.remove();
+                excess--;
+
+                entry.evicted = true;
+
+                close(entry);
+            }
+        }
+    }
+
+    // Arms the idle eviction for the detector idle for the longest, unless it is already armed.
+    private void scheduleIdleEviction(long now) {
+        if (scheduler == null || idleTimeoutMs <= 0 || idleEviction != null) {
+            return;
+        }
+
+        long oldestLastUsed = Long.MAX_VALUE;
+        for (Entry<K, D> entry : entries.values()) {
+            if (entry.references == 0) {
+                oldestLastUsed = Math.min(oldestLastUsed, entry.lastUsed);
+            }
+        }
+
+        if (oldestLastUsed == Long.MAX_VALUE) {
+            return;
+        }
+
+        idleEviction = scheduler.schedule(
+                this::evictIdle,
+                Math.max(0, oldestLastUsed + idleTimeoutMs - now),
+                TimeUnit.MILLISECONDS
+        );
+    }
+
+    private synchronized void evictIdle() {
+        idleEviction = null;
+
+        long now = clock.millis();
+
+        // Detectors used since the eviction was armed are kept, and the eviction is armed again for them.
+        evict(now);
+
+        scheduleIdleEviction(now);
+    }
+
+    private void close(Entry<K, D> entry) {
+        if (entry.references > 0) {
+            return;
+        }
+
+        try {
+            // Closes the detector and releases its model resources.
+            entry.detector.close();
+        } catch (IOException e) {
+            errorHandler.onCloseFailed(entry.key, e);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.ionicframework.capacitor;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Locale;
+
+// The detectors requested by a detect call, parsed from its "detectors" object.
+// Every detector is either true for its defaults, or an object with its options.
+final class DetectorSelection {
+    // https://firebase.google.com/docs/reference/android/com/google/firebase/ml/vision/barcode/FirebaseVisionBarcode#FORMAT_ALL_FORMATS
+    static final int ALL_BARCODE_FORMATS = 0;
+    // The single bit formats from FORMAT_CODE_128 (1) to FORMAT_AZTEC (4096).
+    static final int KNOWN_BARCODE_FORMATS = 0x1fff;
+
+    // The default confidence threshold of FirebaseVisionOnDeviceImageLabelerOptions.
+    static final float DEFAULT_LABEL_CONFIDENCE_THRESHOLD = 0.5f;
+
+    // The face detector config and fields, or null if faces are not requested.
+    final FaceDetectorConfig faceConfig;
+    final FieldProjection faceProjection;
+
+    final boolean barcode;
+    // The FirebaseVisionBarcode formats OR'ed together, or ALL_BARCODE_FORMATS.
+    final int barcodeFormats;
+
+    final boolean text;
+
+    final boolean label;
+    final float labelConfidenceThreshold;
+
+    DetectorSelection(
+            FaceDetectorConfig faceConfig,
+            FieldProjection faceProjection,
+            boolean barcode,
+            int barcodeFormats,
+            boolean text,
+            boolean label,
+            float labelConfidenceThreshold
+    ) {
+        this.faceConfig = faceConfig;
+        this.faceProjection = faceProjection;
+        this.barcode = barcode;
+        this.barcodeFormats = barcodeFormats;
+        this.text = text;
+        this.label = label;
+        this.labelConfidenceThreshold = labelConfidenceThreshold;
+    }
+
+    boolean isEmpty() {
+        return faceConfig == null && !barcode && !text && !label;
+    }
+
+    // The number of requested detectors.
+    int count() {
+        return (faceConfig != null ? 1 : 0) + (barcode ? 1 : 0) + (text ? 1 : 0) + (label ? 1 : 0);
+    }
+
+    static DetectorSelection fromJSONObject(JSONObject detectorsObject) throws JSONException {
+        if (detectorsObject == null) {
+            throw new IllegalArgumentException("Must provide detectors");
+        }
+
+        FaceDetectorConfig faceConfig = null;
+        FieldProjection faceProjection = null;
+
+        Object face = detectorsObject.opt("face");
+        if (isRequested(face)) {
+            JSONObject faceObject = face instanceof JSONObject ? (JSONObject) face : new JSONObject();
+
+            faceProjection = FieldProjection.fromJSONArray(faceObject.optJSONArray("fields"));
+            // Detector modes producing attributes which are not requested are turned off.
+            faceConfig = faceProjection.apply(FaceDetectorConfig.fromJSONObject(faceObject.optJSONObject("options")));
+        }
+
+        Object barcode = detectorsObject.opt("barcode");
+        int barcodeFormats = ALL_BARCODE_FORMATS;
+        if (barcode instanceof JSONObject) {
+            JSONArray formatsArray = ((JSONObject) barcode).optJSONArray("formats");
+            if (formatsArray != null) {
+                boolean allFormats = false;
+                for (int i = 0; i < formatsArray.length(); i++) {
+                    int format = formatsArray.getInt(i);
+
+                    if (format == ALL_BARCODE_FORMATS) {
+                        // Asking for all formats among others still scans for all of them.
+                        allFormats = true;
+                    } else if (Integer.bitCount(format) != 1 || (format & KNOWN_BARCODE_FORMATS) == 0) {
+                        throw new IllegalArgumentException("Unknown barcode format " + format);
+                    } else {
+                        barcodeFormats |= format;
+                    }
+                }
+
+                if (allFormats) {
+                    barcodeFormats = ALL_BARCODE_FORMATS;
+                }
+            }
+        }
+
+        Object label = detectorsObject.opt("label");
+        float labelConfidenceThreshold = DEFAULT_LABEL_CONFIDENCE_THRESHOLD;
+        if (label instanceof JSONObject) {
+            labelConfidenceThreshold = (float) ((JSONObject) label).optDouble("confidenceThreshold", DEFAULT_LABEL_CONFIDENCE_THRESHOLD);
+
+            if (labelConfidenceThreshold < 0 || labelConfidenceThreshold > 1) {
+                throw new IllegalArgumentException(String.format(Locale.ROOT, "confidenceThreshold must be between 0 and 1, was %s", labelConfidenceThreshold));
+            }
+        }
+
+        DetectorSelection selection = new DetectorSelection(
+                faceConfig,
+                faceProjection,
+                isRequested(barcode),
+                barcodeFormats,
+                isRequested(detectorsObject.opt("text")),
+                isRequested(label),
+                labelConfidenceThreshold
+        );
+
+        if (selection.isEmpty()) {
+            throw new IllegalArgumentException("Must request at least one of the detectors face, barcode, text or label");
+        }
+
+        return selection;
+    }
+
+    private static boolean isRequested(Object detector) {
+        return Boolean.TRUE.equals(detector) || detector instanceof JSONObject;
+    }
+}
@@ -0,0 +1,196 @@
+package com.ionicframework.capacitor;
+
+import android.graphics.Rect;
+
+import com.google.firebase.ml.vision.common.FirebaseVisionPoint;
+import com.google.firebase.ml.vision.face.FirebaseVisionFace;
+import com.google.firebase.ml.vision.face.FirebaseVisionFaceContour;
+import com.google.firebase.ml.vision.face.FirebaseVisionFaceLandmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Copies the faces returned by the detector into DetectedFace, mapping their coordinates back to the original image.
+final class FaceConverter {
+    static final int[] LANDMARK_TYPES = {
+            // The midpoint between the subject's left mouth corner and the outer corner of the subject's left eye.
+            FirebaseVisionFaceLandmark.LEFT_CHEEK,
+            // The midpoint between the subject's right mouth corner and the outer corner of the subject's right eye.
+            FirebaseVisionFaceLandmark.RIGHT_CHEEK,
+
+            // The midpoint of the subject's left ear tip and left ear lobe.
+            FirebaseVisionFaceLandmark.LEFT_EAR,
+            // The midpoint of the subject's right ear tip and right ear lobe.
+            FirebaseVisionFaceLandmark.RIGHT_EAR,
+
+            // The center of the subject's left eye cavity.
+            FirebaseVisionFaceLandmark.LEFT_EYE,
+            // The center of the subject's right eye cavity.
+            FirebaseVisionFaceLandmark.RIGHT_EYE,
+
+            // The midpoint between the subject's nostrils where the nose meets the face.
+            FirebaseVisionFaceLandmark.NOSE_BASE,
+
+            // The center of the subject's bottom lip.
+            FirebaseVisionFaceLandmark.MOUTH_BOTTOM,
+            // The subject's left mouth corner where the lips meet.
+            FirebaseVisionFaceLandmark.MOUTH_LEFT,
+            // The subject's right mouth corner where the lips meet.
+            FirebaseVisionFaceLandmark.MOUTH_RIGHT
+    };
+
+    static final int[] CONTOUR_TYPES = {
+            // All points of a face contour.
+            FirebaseVisionFaceContour.ALL_POINTS,
+
+            // The outline of the subject's face.
+            FirebaseVisionFaceContour.FACE,
+
+            // The top outline of the subject's left eyebrow.
+            FirebaseVisionFaceContour.LEFT_EYEBROW_TOP,
+            // The bottom outline of the subject's left eyebrow.
+            FirebaseVisionFaceContour.LEFT_EYEBROW_BOTTOM,
+            // The top outline of the subject's right eyebrow.
+            FirebaseVisionFaceContour.RIGHT_EYEBROW_TOP,
+            // The bottom outline of the subject's right eyebrow.
+            FirebaseVisionFaceContour.RIGHT_EYEBROW_BOTTOM,
+
+            // The outline of the subject's left eye cavity.
+            FirebaseVisionFaceContour.LEFT_EYE,
+            // The outline of the subject's right eye cavity.
+            FirebaseVisionFaceContour.RIGHT_EYE,
+
+            // The top outline of the subject's upper lip.
+            FirebaseVisionFaceContour.UPPER_LIP_TOP,
+            // The bottom outline of the subject's upper lip.
+            FirebaseVisionFaceContour.UPPER_LIP_BOTTOM,
+            // The top outline of the subject's lower lip.
+            FirebaseVisionFaceContour.LOWER_LIP_TOP,
+            // The bottom outline of the subject's lower lip.
+            FirebaseVisionFaceContour.LOWER_LIP_BOTTOM,
+
+            // The outline of the subject's nose bridge.
+            FirebaseVisionFaceContour.NOSE_BRIDGE,
+            // The outline of the subject's nose bottom.
+            FirebaseVisionFaceContour.NOSE_BOTTOM
+    };
+
+    private FaceConverter() {
+    }
+
+    static List<DetectedFace> convert(List<FirebaseVisionFace> faces, ImageTransform transform, FieldProjection projection) {
+        List<DetectedFace> detectedFaces = new ArrayList<>(faces.size());
+
+        for (FirebaseVisionFace face : faces) {
+            detectedFaces.add(convert(face, transform, projection));
+        }
+
+        return detectedFaces;
+    }
+
+    // Represents a face detected by FirebaseVisionFaceDetector.
+    // https://firebase.google.com/docs/reference/android/com/google/firebase/ml/vision/face/FirebaseVisionFace
+    // Only the attributes requested by the projection are copied.
+    static DetectedFace convert(FirebaseVisionFace face, ImageTransform transform, FieldProjection projection) {
+        DetectedFace detectedFace = new DetectedFace();
+
+        if (projection.bounds) {
+            // Returns the axis-aligned bounding rectangle of the detected face.
+            Rect bounds = face.getBoundingBox();
+
+            detectedFace.left = transform.mapX(bounds.left);
+            detectedFace.top = transform.mapY(bounds.top);
+            detectedFace.right = transform.mapX(bounds.right);
+            detectedFace.bottom = transform.mapY(bounds.bottom);
+        }
+
+        for (int landmarkType : LANDMARK_TYPES) {
+            if (!projection.hasLandmark(landmarkType)) {
+                continue;
+            }
+
+            // Represent a face landmark. A landmark is a point on a detected face, such as an eye, nose, or mouth.
+            // https://firebase.google.com/docs/reference/android/com/google/firebase/ml/vision/face/FirebaseVisionFaceLandmark
+            FirebaseVisionFaceLandmark landmark = face.getLandmark(landmarkType);
+
+            if (landmark != null) {
+                // Gets a 2D point for landmark position, where (0, 0) is the upper-left corner of the image.
+                FirebaseVisionPoint point = landmark.getPosition();
+
+                detectedFace.landmarks.add(
+                        new DetectedFace.Landmark(
+                                // Gets the FirebaseVisionFaceLandmark.LandmarkType type.
+                                landmark.getLandmarkType(),
+                                transform.mapX(point.getX()),
+                                transform.mapY(point.getY()),
+                                mapZ(point, transform)
+                        )
+                );
+            }
+        }
+
+        for (int contourType : CONTOUR_TYPES) {
+            if (!projection.hasContour(contourType)) {
+                continue;
+            }
+
+            // Represent a face contour. A contour is a list of points on a detected face, such as the mouth.
+            // https://firebase.google.com/docs/reference/android/com/google/firebase/ml/vision/face/FirebaseVisionFaceContour
+            FirebaseVisionFaceContour contour = face.getContour(contourType);
+
+            if (contour != null) {
+                // Gets a list of 2D points for this face contour, where (0, 0) is the upper-left corner of the image.
+                List<FirebaseVisionPoint> points = contour.getPoints();
+
+                if (!points.isEmpty()) {
+                    float[] coordinates = new float[points.size() * 3];
+
+                    int i = 0;
+                    for (FirebaseVisionPoint point : points) {
+                        coordinates[i++] = transform.mapX(point.getX());
+                        coordinates[i++] = transform.mapY(point.getY());
+                        coordinates[i++] = mapZ(point, transform);
+                    }
+
+                    detectedFace.contours.add(
+                            new DetectedFace.Contour(
+                                    // Gets the FirebaseVisionFaceContour.ContourType type.
+                                    contour.getFaceContourType(),
+                                    coordinates
+                            )
+                    );
+                }
+            }
+        }
+
+        if (projection.headEulerAngleY) {
+            detectedFace.headEulerAngleY = face.getHeadEulerAngleY();
+        }
+        if (projection.headEulerAngleZ) {
+            detectedFace.headEulerAngleZ = face.getHeadEulerAngleZ();
+        }
+
+        if (projection.leftEyeOpenProbability) {
+            detectedFace.leftEyeOpenProbability = face.getLeftEyeOpenProbability();
+        }
+        if (projection.rightEyeOpenProbability) {
+            detectedFace.rightEyeOpenProbability = face.getRightEyeOpenProbability();
+        }
+        if (projection.smilingProbability) {
+            detectedFace.smilingProbability = face.getSmilingProbability();
+        }
+
+        if (projection.trackingId) {
+            detectedFace.trackingId = face.getTrackingId();
+        }
+
+        return detectedFace;
+    }
+
+    // Gets z coordinate (or depth), NaN if unknown.
+    private static float mapZ(FirebaseVisionPoint point, ImageTransform transform) {
+        Float z = point.getZ();
+
+        return z != null ? transform.mapZ(z) : Float.NaN;
+    }
+}
@@ -0,0 +1,161 @@
+package com.ionicframework.capacitor;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+// The stages of detecting the faces of one decoded frame: acquiring a detector, detecting, releasing the detector and serializing the faces.
+// It is independent of the platform, so detectInImage runs it on the Firebase backend while the JVM tests and benchmarks run the very same stages on the fake backend.
+final class FaceDetectionPipeline<I> {
+    interface Clock {
+        long nanos();
+    }
+
+    // Receives the outcome of one frame. onDetected is called on success only, then exactly one of onSuccess and onFailure unless the faces are dropped.
+    interface Listener {
+        // Called once the detector was released and done ran, before the faces are serialized.
+        // Returns false to drop the faces without serializing them, e.g. as the frame became stale meanwhile.
+        boolean onDetected(List<DetectedFace> faces);
+
+        // The faces were put into the data of the frame.
+        void onSuccess();
+
+        void onFailure(Exception e);
+    }
+
+    private final FaceDetectorBackend<I> backend;
+
+    // Runs the callbacks of the detections, and the serialization of their faces.
+    private final Executor executor;
+
+    private final DetectionMetrics metrics;
+    private final Clock clock;
+
+    FaceDetectionPipeline(FaceDetectorBackend<I> backend, Executor executor, DetectionMetrics metrics, Clock clock) {
+        this.backend = backend;
+        this.executor = executor;
+        this.metrics = metrics;
+        this.clock = clock;
+    }
+
+    // Detects the faces in the image and puts them into data, see FaceResults.put, along with the timings if includeTimings is set.
+    // The stages are recorded into the timings and the metrics, the durations count from startedAtNanos of the clock.
+    // done runs exactly once, as soon as the detector was released or the detection failed, so that e.g. the scheduler starts the next frame while this one is serialized.
+    void detect(
+            I image,
+            ImageTransform transform,
+            FaceDetectorConfig config,
+            final FieldProjection projection,
+            final String resultFormat,
+            final FaceTracker tracker,
+            final long startedAtNanos,
+            final DetectionTimings timings,
+            final boolean includeTimings,
+            final JSONObject data,
+            final Runnable done,
+            final Listener listener
+    ) {
+        long acquireStartedAt = clock.nanos();
+
+        // Creating a detector may fail, e.g. if its model is missing.
+        final FaceDetectorBackend.Detector<I> detector;
+        try {
+            detector = backend.acquire(config);
+        } catch (Exception e) {
+            fail(done, listener, e);
+            return;
+        }
+
+        final long inferenceStartedAt = clock.nanos();
+        timings.detectorAcquireNanos = inferenceStartedAt - acquireStartedAt;
+
+        try {
+            detector.detect(
+                    image,
+                    transform,
+                    projection,
+                    executor,
+                    new FaceDetectorBackend.Callback() {
+                        @Override
+                        public void onSuccess(List<DetectedFace> faces) {
+                            timings.inferenceNanos = clock.nanos() - inferenceStartedAt;
+
+                            // Hands the detector back once the detection completed, so that it is never closed while still in use.
+                            detector.release();
+
+                            done.run();
+
+                            if (!listener.onDetected(faces)) {
+                                return;
+                            }
+
+                            try {
+                                serialize(faces, projection, resultFormat, tracker, startedAtNanos, timings, includeTimings, data);
+                            } catch (JSONException e) {
+                                metrics.recordFailure();
+
+                                listener.onFailure(e);
+                                return;
+                            }
+
+                            listener.onSuccess();
+                        }
+
+                        @Override
+                        public void onFailure(Exception e) {
+                            detector.release();
+
+                            fail(done, listener, e);
+                        }
+                    }
+            );
+        } catch (Exception e) {
+            detector.release();
+
+            fail(done, listener, e);
+        }
+    }
+
+    // Puts the faces into data, see FaceResults.put, along with the timings if includeTimings is set, and records the timings into the metrics.
+    // Also used for faces which did not run through the detection, e.g. the faces of the result cache.
+    void serialize(
+            List<DetectedFace> faces,
+            FieldProjection projection,
+            String resultFormat,
+            FaceTracker tracker,
+            long startedAtNanos,
+            DetectionTimings timings,
+            boolean includeTimings,
+            JSONObject data
+    ) throws JSONException {
+        long serializeStartedAt = clock.nanos();
+
+        JSONArray facesArray = FaceResults.put(data, faces, projection, resultFormat, tracker, startedAtNanos);
+
+        long completedAt = clock.nanos();
+        timings.serializeNanos = completedAt - serializeStartedAt;
+        timings.totalNanos = completedAt - startedAtNanos;
+
+        if (includeTimings || metrics.sampleResultSize()) {
+            // Measured outside of the serialize stage, as the bridge serializes the result once more.
+            timings.resultBytes = facesArray.toString().length();
+        }
+
+        metrics.record(timings);
+
+        if (includeTimings) {
+            data.put("timings", timings.toJSONObject());
+        }
+    }
+
+    private void fail(Runnable done, Listener listener, Exception e) {
+        done.run();
+
+        metrics.recordFailure();
+
+        listener.onFailure(e);
+    }
+}
@@ -0,0 +1,27 @@
+package com.ionicframework.capacitor;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+// Detects faces in images of type I.
+// The plugin runs on FirebaseFaceDetectorBackend, the JVM tests and benchmarks on a fake backend emitting synthetic faces.
+interface FaceDetectorBackend<I> {
+    // Receives the result of one detection, exactly one of the methods is called.
+    interface Callback {
+        void onSuccess(List<DetectedFace> faces);
+
+        void onFailure(Exception e);
+    }
+
+    // A detector for one config. It has to be released once its last detection completed.
+    interface Detector<I> {
+        // Detects the faces in the image, mapping their coordinates through the transform and copying only the projected attributes.
+        // The callback runs on the given executor.
+        void detect(I image, ImageTransform transform, FieldProjection projection, Executor executor, Callback callback);
+
+        void release();
+    }
+
+    // Returns a detector for the config, which may be shared with other callers.
+    Detector<I> acquire(FaceDetectorConfig config);
+}
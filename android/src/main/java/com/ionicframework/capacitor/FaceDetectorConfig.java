@@ -0,0 +1,126 @@
+package com.ionicframework.capacitor;
+
+import org.json.JSONObject;
+
+import java.util.Locale;
+
+// Normalized options of a face detector.
+// Two calls passing the same effective options produce equal configs, so the config can be used as the key of the detector cache.
+// https://firebase.google.com/docs/reference/android/com/google/firebase/ml/vision/face/FirebaseVisionFaceDetectorOptions
+final class FaceDetectorConfig {
+    // https://firebase.google.com/docs/reference/android/com/google/firebase/ml/vision/face/FirebaseVisionFaceDetectorOptions#constants
+    static final int FAST = 1;
+    static final int ACCURATE = 2;
+
+    static final int NO_LANDMARKS = 1;
+    static final int ALL_LANDMARKS = 2;
+
+    static final int NO_CLASSIFICATIONS = 1;
+    static final int ALL_CLASSIFICATIONS = 2;
+
+    static final int NO_CONTOURS = 1;
+    static final int ALL_CONTOURS = 2;
+
+    // The default smallest desired face size of FirebaseVisionFaceDetectorOptions.Builder.
+    static final float DEFAULT_MIN_FACE_SIZE = 0.1f;
+
+    static final FaceDetectorConfig DEFAULT = new FaceDetectorConfig(
+            FAST,
+            NO_LANDMARKS,
+            NO_CLASSIFICATIONS,
+            NO_CONTOURS,
+            DEFAULT_MIN_FACE_SIZE,
+            false
+    );
+
+    final int performanceMode;
+    final int landmarkMode;
+    final int classificationMode;
+    final int contourMode;
+
+    final float minFaceSize;
+
+    final boolean enableTracking;
+
+    FaceDetectorConfig(int performanceMode, int landmarkMode, int classificationMode, int contourMode, float minFaceSize, boolean enableTracking) {
+        this.performanceMode = performanceMode;
+        this.landmarkMode = landmarkMode;
+        this.classificationMode = classificationMode;
+        this.contourMode = contourMode;
+
+        this.minFaceSize = minFaceSize;
+
+        this.enableTracking = enableTracking;
+    }
+
+    // Parses the "options" object passed from JavaScript, falling back to the detector defaults for missing values.
+    static FaceDetectorConfig fromJSONObject(JSONObject optionsObject) {
+        if (optionsObject == null) {
+            return DEFAULT;
+        }
+
+        return new FaceDetectorConfig(
+                optionsObject.optInt("performanceMode", DEFAULT.performanceMode),
+                optionsObject.optInt("landmarkMode", DEFAULT.landmarkMode),
+                optionsObject.optInt("classificationMode", DEFAULT.classificationMode),
+                optionsObject.optInt("contourMode", DEFAULT.contourMode),
+                (float) optionsObject.optDouble("minFaceSize", DEFAULT.minFaceSize),
+                optionsObject.optBoolean("enableTracking", DEFAULT.enableTracking)
+        );
+    }
+
+    // Returns this config with tracking enabled, as needed by the face tracker.
+    FaceDetectorConfig withTracking() {
+        if (enableTracking) {
+            return this;
+        }
+
+        return new FaceDetectorConfig(performanceMode, landmarkMode, classificationMode, contourMode, minFaceSize, true);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof FaceDetectorConfig)) {
+            return false;
+        }
+
+        FaceDetectorConfig that = (FaceDetectorConfig) o;
+
+        return performanceMode == that.performanceMode
+                && landmarkMode == that.landmarkMode
+                && classificationMode == that.classificationMode
+                && contourMode == that.contourMode
+                && Float.compare(minFaceSize, that.minFaceSize) == 0
+                && enableTracking == that.enableTracking;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = performanceMode;
+
+        result = 31 * result + landmarkMode;
+        result = 31 * result + classificationMode;
+        result = 31 * result + contourMode;
+        result = 31 * result + Float.floatToIntBits(minFaceSize);
+        result = 31 * result + (enableTracking ? 1 : 0);
+
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                Locale.ROOT,
+                "performanceMode=%d,landmarkMode=%d,classificationMode=%d,contourMode=%d,minFaceSize=%s,enableTracking=%b",
+                performanceMode,
+                landmarkMode,
+                classificationMode,
+                contourMode,
+                minFaceSize,
+                enableTracking
+        );
+    }
+}
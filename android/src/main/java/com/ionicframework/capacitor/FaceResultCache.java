@@ -0,0 +1,431 @@
+package com.ionicframework.capacitor;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executor;
+
+// Caches the faces detected in an image, keyed by the identity of the image and the normalized options of the call, so that repeated calls skip decoding and detection.
+// The memory tier is a least recently used map bounded by the approximate size of the faces. The optional disk tier keeps the faces in a directory in DetectedFaceCodec format,
+// bounded by the size of its files, and is written and read on a background executor.
+// Cached faces are shared between calls and must never be modified, which is why calls with a face tracker bypass the cache.
+final class FaceResultCache {
+    static final long DEFAULT_MAX_BYTES = 2 * 1024 * 1024;
+    static final long DEFAULT_MAX_DISK_BYTES = 16 * 1024 * 1024;
+
+    private static final String FILE_SUFFIX = ".faces";
+
+    private static final int HASH_CHUNK_LENGTH = 4096;
+
+    interface Listener {
+        // The cached faces, or null on a miss.
+        void onLookup(List<DetectedFace> faces);
+    }
+
+    private static final class Entry {
+        final List<DetectedFace> faces;
+        final int size;
+
+        Entry(List<DetectedFace> faces, int size) {
+            this.faces = faces;
+            this.size = size;
+        }
+    }
+
+    // Runs the disk reads and writes, so that looking up or storing a result never blocks the caller.
+    private final Executor diskExecutor;
+
+    // Iterates from the least recently used to the most recently used result.
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long maxBytes;
+    private long retainedBytes;
+
+    private long memoryHits;
+    private long diskHits;
+    private long misses;
+    private long evictions;
+
+    // The directory of the disk tier, or null if it is off. Only accessed while holding diskLock.
+    private final Object diskLock = new Object();
+    private File directory;
+    private long maxDiskBytes;
+    // The size of the files in the directory, or -1 until it was listed.
+    private long diskBytes = -1;
+
+    FaceResultCache(long maxBytes, Executor diskExecutor) {
+        this.maxBytes = maxBytes;
+        this.diskExecutor = diskExecutor;
+    }
+
+    // Sets the bound of the memory tier, and turns the disk tier on (with a directory) or off (with null).
+    void configure(long maxBytes, File directory, long maxDiskBytes) {
+        synchronized (this) {
+            this.maxBytes = maxBytes;
+
+            trimToSize(maxBytes);
+        }
+
+        synchronized (diskLock) {
+            this.directory = directory;
+            this.maxDiskBytes = maxDiskBytes;
+            this.diskBytes = -1;
+
+            if (directory != null) {
+                trimDisk();
+            }
+        }
+    }
+
+    // Returns the cached faces of the key, from memory or else from disk, or null.
+    // Reads the disk tier on the calling thread, see get(String, Listener) to read it on the disk executor.
+    List<DetectedFace> get(String key) {
+        List<DetectedFace> faces = getFromMemory(key);
+        if (faces != null) {
+            return faces;
+        }
+
+        return getFromDisk(key);
+    }
+
+    // Looks the key up like get(String), and passes the faces or null to the listener.
+    // Memory hits and misses with the disk tier turned off are passed on the calling thread, disk reads run on the disk executor and pass the faces on it.
+    void get(final String key, final Listener listener) {
+        List<DetectedFace> faces = getFromMemory(key);
+        if (faces != null) {
+            listener.onLookup(faces);
+            return;
+        }
+
+        boolean diskEnabled;
+        synchronized (diskLock) {
+            diskEnabled = directory != null;
+        }
+
+        if (!diskEnabled) {
+            listener.onLookup(getFromDisk(key));
+            return;
+        }
+
+        diskExecutor.execute(() -> listener.onLookup(getFromDisk(key)));
+    }
+
+    private synchronized List<DetectedFace> getFromMemory(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+
+        memoryHits++;
+        return entry.faces;
+    }
+
+    // Counts a miss if the faces are not on disk either, e.g. as the disk tier is turned off.
+    private List<DetectedFace> getFromDisk(String key) {
+        List<DetectedFace> faces = readDisk(key);
+
+        synchronized (this) {
+            if (faces == null) {
+                misses++;
+                return null;
+            }
+
+            diskHits++;
+            putMemory(key, faces);
+        }
+
+        return faces;
+    }
+
+    void put(final String key, final List<DetectedFace> faces) {
+        synchronized (this) {
+            putMemory(key, faces);
+        }
+
+        diskExecutor.execute(() -> writeDisk(key, faces));
+    }
+
+    // Drops the memory tier down to the given number of bytes, the disk tier is kept.
+    synchronized void trimToSize(long bytes) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (retainedBytes > bytes && iterator.hasNext()) {
+            retainedBytes -= iterator.next().size;
+            iterator.remove();
+
+            evictions++;
+        }
+    }
+
+    void clear() {
+        synchronized (this) {
+            trimToSize(0);
+        }
+
+        synchronized (diskLock) {
+            File[] files = listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    //noinspection ResultOfMethodCallIgnored
+                    file.delete();
+                }
+            }
+
+            diskBytes = directory != null ? 0 : -1;
+        }
+    }
+
+    synchronized long getMemoryHits() {
+        return memoryHits;
+    }
+
+    synchronized long getDiskHits() {
+        return diskHits;
+    }
+
+    synchronized long getMisses() {
+        return misses;
+    }
+
+    JSONObject toJSONObject() throws JSONException {
+        JSONObject object = new JSONObject();
+
+        synchronized (this) {
+            long hits = memoryHits + diskHits;
+
+            object.put("hits", hits);
+            object.put("memoryHits", memoryHits);
+            object.put("diskHits", diskHits);
+            object.put("misses", misses);
+            object.put("hitRate", hits + misses > 0 ? (double) hits / (hits + misses) : 0);
+            object.put("evictions", evictions);
+            object.put("count", entries.size());
+            object.put("retainedBytes", retainedBytes);
+            object.put("maxBytes", maxBytes);
+        }
+
+        synchronized (diskLock) {
+            object.put("diskBytes", Math.max(diskBytes, 0));
+            object.put("maxDiskBytes", directory != null ? maxDiskBytes : 0);
+        }
+
+        return object;
+    }
+
+    private void putMemory(String key, List<DetectedFace> faces) {
+        int size = DetectedFaceCodec.sizeOf(faces) + key.length() * 2;
+        if (size > maxBytes) {
+            return;
+        }
+
+        Entry previous = entries.put(key, new Entry(faces, size));
+        if (previous != null) {
+            retainedBytes -= previous.size;
+        }
+        retainedBytes += size;
+
+        trimToSize(maxBytes);
+    }
+
+    private List<DetectedFace> readDisk(String key) {
+        synchronized (diskLock) {
+            if (directory == null) {
+                return null;
+            }
+
+            File file = file(key);
+            if (!file.isFile()) {
+                return null;
+            }
+
+            try {
+                DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+                try {
+                    // Different keys may share a file name.
+                    if (!key.equals(in.readUTF())) {
+                        return null;
+                    }
+
+                    List<DetectedFace> faces = DetectedFaceCodec.read(in, file.length());
+
+                    // Files are evicted by their modification time, least recently used first.
+                    //noinspection ResultOfMethodCallIgnored
+                    file.setLastModified(System.currentTimeMillis());
+
+                    return faces;
+                } finally {
+                    in.close();
+                }
+            } catch (IOException e) {
+                // A truncated or outdated file is dropped.
+                deleteFile(file);
+
+                return null;
+            }
+        }
+    }
+
+    private void writeDisk(String key, List<DetectedFace> faces) {
+        synchronized (diskLock) {
+            if (directory == null || (!directory.isDirectory() && !directory.mkdirs())) {
+                return;
+            }
+
+            File file = file(key);
+            File tempFile = new File(directory, file.getName() + ".tmp");
+
+            try {
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+                try {
+                    out.writeUTF(key);
+                    DetectedFaceCodec.write(out, faces);
+                } finally {
+                    out.close();
+                }
+
+                // Readers never see a partly written file.
+                deleteFile(file);
+                if (!tempFile.renameTo(file)) {
+                    throw new IOException("Unable to rename " + tempFile);
+                }
+
+                if (diskBytes >= 0) {
+                    diskBytes += file.length();
+                }
+            } catch (IOException e) {
+                //noinspection ResultOfMethodCallIgnored
+                tempFile.delete();
+            }
+
+            trimDisk();
+        }
+    }
+
+    // Deletes the least recently used files until the directory fits maxDiskBytes. Must hold diskLock.
+    private void trimDisk() {
+        File[] files = listFiles();
+        if (files == null) {
+            return;
+        }
+
+        if (diskBytes < 0) {
+            diskBytes = 0;
+            for (File file : files) {
+                diskBytes += file.length();
+            }
+        }
+
+        if (diskBytes <= maxDiskBytes) {
+            return;
+        }
+
+        Arrays.sort(files, (File a, File b) -> Long.compare(a.lastModified(), b.lastModified()));
+
+        for (File file : files) {
+            if (diskBytes <= maxDiskBytes) {
+                break;
+            }
+
+            deleteFile(file);
+        }
+    }
+
+    private File[] listFiles() {
+        if (directory == null) {
+            return null;
+        }
+
+        return directory.listFiles((File dir, String name) -> name.endsWith(FILE_SUFFIX));
+    }
+
+    private void deleteFile(File file) {
+        long length = file.length();
+
+        if (file.delete() && diskBytes >= 0) {
+            diskBytes -= length;
+        }
+    }
+
+    private File file(String key) {
+        return new File(directory, hash(key).substring(0, 16) + FILE_SUFFIX);
+    }
+
+    // Builds the key of a call from the identity of its image and every option affecting the detected faces.
+    static String key(String imageId, FaceDetectorConfig config, FieldProjection projection, ImageDecodeOptions decodeOptions) {
+        return imageId + '|' + config + '|' + projection + '|' + decodeOptions;
+    }
+
+    // A fast 128 bit hash of the content, e.g. a Base64 encoded image, hashed as it is without decoding it.
+    static String hash(String content) {
+        int length = content.length();
+
+        long h1 = 0x9e3779b97f4a7c15L;
+        long h2 = 0xc2b2ae3d27d4eb4fL ^ length;
+
+        // The chars are copied out in chunks, which is much faster than charAt() for every char.
+        char[] chunk = new char[Math.min(length, HASH_CHUNK_LENGTH) & ~3];
+
+        int i = 0;
+        while (length - i >= 4) {
+            int chunkLength = Math.min(chunk.length, (length - i) & ~3);
+            content.getChars(i, i + chunkLength, chunk, 0);
+
+            // Four chars are mixed into both lanes at a time.
+            for (int j = 0; j < chunkLength; j += 4) {
+                long word = chunk[j]
+                        | (long) chunk[j + 1] << 16
+                        | (long) chunk[j + 2] << 32
+                        | (long) chunk[j + 3] << 48;
+
+                h1 = Long.rotateLeft(h1 ^ word * 0x87c37b91114253d5L, 31) * 0x4cf5ad432745937fL;
+                h2 = Long.rotateLeft(h2 + word, 27) * 0x9e3779b97f4a7c15L;
+            }
+
+            i += chunkLength;
+        }
+        for (; i < length; i++) {
+            h1 = (h1 ^ content.charAt(i)) * 0x100000001b3L;
+            h2 = Long.rotateLeft(h2 ^ h1, 29);
+        }
+
+        return String.format(Locale.ROOT, "%016x%016x", mix(h1 ^ length), mix(h2 + h1));
+    }
+
+    // The finalizer of MurmurHash3, which spreads every input bit over the whole hash.
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+
+        return h;
+    }
+
+    // Describes the identity of an image by its content, for images passed as Base64.
+    static String contentId(String content) {
+        return "content:" + hash(content);
+    }
+
+    // Describes the identity of a file by its location, size and modification time, so that a changed file is never served from the cache.
+    static String fileId(String uri, long length, long lastModified) {
+        return String.format(Locale.ROOT, "file:%s:%d:%d", uri, length, lastModified);
+    }
+
+    // The number of results in memory.
+    synchronized int size() {
+        return entries.size();
+    }
+}
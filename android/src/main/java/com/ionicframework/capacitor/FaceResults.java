@@ -0,0 +1,60 @@
+package com.ionicframework.capacitor;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.List;
+
+// Builds the faces of a result passed through the bridge.
+final class FaceResults {
+    // Result formats of detected faces, either an object per point or packed Float32 arrays.
+    static final String FORMAT_JSON = "json";
+    static final String FORMAT_PACKED = "packed";
+
+    private FaceResults() {
+    }
+
+    static void checkFormat(String resultFormat) {
+        if (!FORMAT_JSON.equals(resultFormat) && !FORMAT_PACKED.equals(resultFormat)) {
+            throw new IllegalArgumentException("Unknown result format \"" + resultFormat + "\"");
+        }
+    }
+
+    // Serializes the requested fields of the faces in the requested result format.
+    static JSONArray toJSONArray(List<DetectedFace> faces, FieldProjection projection, String resultFormat) throws JSONException {
+        if (FORMAT_PACKED.equals(resultFormat)) {
+            // Packs the points of every face into one Float32 array.
+            return PackedFaceEncoder.toJSONArray(faces, projection);
+        }
+
+        return FaceSerializer.toJSONArray(faces, projection);
+    }
+
+    // Puts the serialized faces as "faces", after smoothing and diffing them against the earlier frames if a tracker is given.
+    // The ids of the faces which disappeared are put as "removed".
+    static JSONArray put(
+            JSONObject data,
+            List<DetectedFace> faces,
+            FieldProjection projection,
+            String resultFormat,
+            FaceTracker tracker,
+            long timestampNanos
+    ) throws JSONException {
+        if (tracker == null) {
+            JSONArray facesArray = toJSONArray(faces, projection, resultFormat);
+            data.put("faces", facesArray);
+
+            return facesArray;
+        }
+
+        FaceTracker.Update update = tracker.update(faces, timestampNanos);
+
+        JSONArray facesArray = toJSONArray(update.faces, projection, resultFormat);
+
+        data.put("faces", facesArray);
+        data.put("removed", new JSONArray(update.removed));
+
+        return facesArray;
+    }
+}
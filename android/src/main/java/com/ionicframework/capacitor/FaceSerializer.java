@@ -0,0 +1,174 @@
+package com.ionicframework.capacitor;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.List;
+
+// Serializes detected faces into the object tree returned to JavaScript.
+final class FaceSerializer {
+    private FaceSerializer() {
+    }
+
+    static JSONArray toJSONArray(List<DetectedFace> faces) throws JSONException {
+        return toJSONArray(faces, FieldProjection.ALL);
+    }
+
+    static JSONArray toJSONArray(List<DetectedFace> faces, FieldProjection projection) throws JSONException {
+        JSONArray facesArray = new JSONArray();
+
+        for (DetectedFace face : faces) {
+            facesArray.put(toJSONObject(face, projection));
+        }
+
+        return facesArray;
+    }
+
+    static JSONObject toJSONObject(DetectedFace face) throws JSONException {
+        return toJSONObject(face, FieldProjection.ALL);
+    }
+
+    static JSONObject toJSONObject(DetectedFace face, FieldProjection projection) throws JSONException {
+        JSONObject faceObject = new JSONObject();
+
+        putBounds(faceObject, face, projection);
+
+        {
+            JSONArray landmarksArray = new JSONArray();
+
+            for (DetectedFace.Landmark landmark : face.landmarks) {
+                if (!projection.hasLandmark(landmark.type)) {
+                    continue;
+                }
+
+                JSONObject landmarkObject = new JSONObject();
+
+                // Gets the FirebaseVisionFaceLandmark.LandmarkType type.
+                landmarkObject.put("type", landmark.type);
+                // Gets a 2D point for landmark position, where (0, 0) is the upper-left corner of the image.
+                landmarkObject.put("position", pointObject(landmark.x, landmark.y, landmark.z));
+
+                landmarksArray.put(landmarkObject);
+            }
+
+            if (landmarksArray.length() > 0) {
+                faceObject.put("landmarks", landmarksArray);
+            }
+        }
+
+        {
+            JSONArray contoursArray = new JSONArray();
+
+            for (DetectedFace.Contour contour : face.contours) {
+                if (!projection.hasContour(contour.type)) {
+                    continue;
+                }
+
+                JSONArray pointsArray = new JSONArray();
+
+                float[] points = contour.points;
+                for (int i = 0; i < points.length; i += 3) {
+                    pointsArray.put(pointObject(points[i], points[i + 1], points[i + 2]));
+                }
+
+                JSONObject contourObject = new JSONObject();
+
+                // Gets the FirebaseVisionFaceContour.ContourType type.
+                contourObject.put("type", contour.type);
+                // Gets a list of 2D points for this face contour, where (0, 0) is the upper-left corner of the image.
+                contourObject.put("points", pointsArray);
+
+                contoursArray.put(contourObject);
+            }
+
+            if (contoursArray.length() > 0) {
+                faceObject.put("contours", contoursArray);
+            }
+        }
+
+        putAttributes(faceObject, face, projection);
+
+        return faceObject;
+    }
+
+    static void putBounds(JSONObject faceObject, DetectedFace face, FieldProjection projection) throws JSONException {
+        if (projection.bounds) {
+            faceObject.put("bounds", boundsObject(face, projection.compactBounds));
+        }
+    }
+
+    static JSONObject boundsObject(DetectedFace face, boolean compact) throws JSONException {
+        JSONObject boundsObject = new JSONObject();
+
+        // The X coordinate of the left side of the rectangle
+        boundsObject.put("x", face.left);
+        // The Y coordinate of the top of the rectangle
+        boundsObject.put("y", face.top);
+        // The rectangle's width.
+        boundsObject.put("width", face.right - face.left);
+        // The rectangle's height.
+        boundsObject.put("height", face.bottom - face.top);
+
+        if (compact) {
+            return boundsObject;
+        }
+
+        boundsObject.put("left", face.left);
+        boundsObject.put("top", face.top);
+        boundsObject.put("right", face.right);
+        boundsObject.put("bottom", face.bottom);
+
+        return boundsObject;
+    }
+
+    // Puts the scalar attributes of the face, which are shared by all result formats.
+    static void putAttributes(JSONObject faceObject, DetectedFace face, FieldProjection projection) throws JSONException {
+        if (projection.headEulerAngleY) {
+            // Returns the rotation of the face about the vertical axis of the image.
+            putFloat(faceObject, "headEulerAngleY", face.headEulerAngleY);
+        }
+        if (projection.headEulerAngleZ) {
+            // Returns the rotation of the face about the axis pointing out of the image.
+            putFloat(faceObject, "headEulerAngleZ", face.headEulerAngleZ);
+        }
+
+        if (projection.leftEyeOpenProbability && face.leftEyeOpenProbability != DetectedFace.UNCOMPUTED_PROBABILITY) {
+            // Returns a value between 0.0 and 1.0 giving a probability that the face's left eye is open.
+            putFloat(faceObject, "leftEyeOpenProbability", face.leftEyeOpenProbability);
+        }
+        if (projection.rightEyeOpenProbability && face.rightEyeOpenProbability != DetectedFace.UNCOMPUTED_PROBABILITY) {
+            // Returns a value between 0.0 and 1.0 giving a probability that the face's right eye is open.
+            putFloat(faceObject, "rightEyeOpenProbability", face.rightEyeOpenProbability);
+        }
+        if (projection.smilingProbability && face.smilingProbability != DetectedFace.UNCOMPUTED_PROBABILITY) {
+            // Returns a value between 0.0 and 1.0 giving a probability that the face is smiling.
+            putFloat(faceObject, "smilingProbability", face.smilingProbability);
+        }
+
+        if (projection.trackingId && face.trackingId != DetectedFace.INVALID_ID) {
+            // Returns the tracking ID if the tracking is enabled.
+            faceObject.put("trackingId", face.trackingId);
+        }
+    }
+
+    static JSONObject pointObject(float x, float y, float z) throws JSONException {
+        JSONObject pointObject = new JSONObject();
+
+        // Gets x coordinate.
+        putFloat(pointObject, "x", x);
+        // Gets y coordinate.
+        putFloat(pointObject, "y", y);
+        if (!Float.isNaN(z)) {
+            // Gets z coordinate (or depth).
+            putFloat(pointObject, "z", z);
+        }
+
+        return pointObject;
+    }
+
+    // Boxes the value as Float, which serializes with float instead of double precision.
+    static void putFloat(JSONObject object, String name, float value) throws JSONException {
+        object.put(name, (Object) value);
+    }
+}
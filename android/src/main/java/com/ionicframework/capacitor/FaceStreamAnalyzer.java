@@ -0,0 +1,150 @@
+package com.ionicframework.capacitor;
+
+import android.annotation.SuppressLint;
+import android.media.Image;
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.camera.core.ImageAnalysis;
+import androidx.camera.core.ImageProxy;
+
+import com.google.firebase.ml.vision.common.FirebaseVisionImage;
+import com.google.firebase.ml.vision.common.FirebaseVisionImageMetadata;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+// Feeds camera frames straight into the face detector, without encoding them for the bridge.
+// A frame is only closed once its detection completed, so with ImageAnalysis.STRATEGY_KEEP_ONLY_LATEST the camera drops frames instead of queueing them.
+class FaceStreamAnalyzer implements ImageAnalysis.Analyzer {
+    interface Listener {
+        // The settings are those the frame was detected with, or null without a governor.
+        void onFaces(List<DetectedFace> faces, int width, int height, int rotationDegrees, AdaptiveGovernor.Settings settings);
+
+        void onError(Exception e);
+    }
+
+    private final FaceDetectorBackend<FirebaseVisionImage> faceDetectorBackend;
+    private final FaceDetectorConfig config;
+    // Adapts the config to the latency of the frames, or null to always detect with the config.
+    private final AdaptiveGovernor governor;
+    private final FieldProjection projection;
+
+    // Runs the detection callbacks off the main thread.
+    private final Executor executor;
+
+    private final Listener listener;
+
+    private volatile boolean stopped;
+
+    FaceStreamAnalyzer(
+            FaceDetectorBackend<FirebaseVisionImage> faceDetectorBackend,
+            FaceDetectorConfig config,
+            AdaptiveGovernor governor,
+            FieldProjection projection,
+            Executor executor,
+            Listener listener
+    ) {
+        this.faceDetectorBackend = faceDetectorBackend;
+        this.config = config;
+        this.governor = governor;
+        this.projection = projection;
+        this.executor = executor;
+        this.listener = listener;
+    }
+
+    // Stops reporting results. Frames still in flight complete, but are no longer delivered.
+    void stop() {
+        stopped = true;
+    }
+
+    @Override
+    @SuppressLint("UnsafeExperimentalUsageError")
+    public void analyze(@NonNull ImageProxy imageProxy) {
+        Image mediaImage = imageProxy.getImage();
+
+        if (stopped || mediaImage == null) {
+            imageProxy.close();
+            return;
+        }
+
+        final int rotationDegrees = imageProxy.getImageInfo().getRotationDegrees();
+
+        // The detector reports coordinates in the up-right orientation of the frame.
+        final boolean rotated = rotationDegrees == 90 || rotationDegrees == 270;
+        final int width = rotated ? imageProxy.getHeight() : imageProxy.getWidth();
+        final int height = rotated ? imageProxy.getWidth() : imageProxy.getHeight();
+
+        final AdaptiveGovernor.Settings settings = governor != null ? governor.settings(config, 0) : null;
+
+        final FaceDetectorBackend.Detector<FirebaseVisionImage> faceDetector = faceDetectorBackend.acquire(settings != null ? settings.config : config);
+
+        final long detectStartedAt = SystemClock.elapsedRealtimeNanos();
+
+        try {
+            // Creates a FirebaseVisionImage from a media.Image object, such as a YUV_420_888 frame captured from the device's camera.
+            // https://firebase.google.com/docs/reference/android/com/google/firebase/ml/vision/common/FirebaseVisionImage#fromMediaImage(android.media.Image,%20int)
+            FirebaseVisionImage image = FirebaseVisionImage.fromMediaImage(
+                    mediaImage,
+                    toRotation(rotationDegrees)
+            );
+
+            faceDetector.detect(
+                    image,
+                    ImageTransform.IDENTITY,
+                    projection,
+                    executor,
+                    new FaceDetectorBackend.Callback() {
+                        @Override
+                        public void onSuccess(List<DetectedFace> faces) {
+                            if (governor != null) {
+                                governor.record(SystemClock.elapsedRealtimeNanos() - detectStartedAt);
+                            }
+
+                            complete();
+
+                            if (!stopped) {
+                                listener.onFaces(faces, width, height, rotationDegrees, settings);
+                            }
+                        }
+
+                        @Override
+                        public void onFailure(Exception e) {
+                            complete();
+
+                            if (!stopped) {
+                                listener.onError(e);
+                            }
+                        }
+
+                        private void complete() {
+                            faceDetector.release();
+
+                            // Hands the frame back to the camera, which then delivers the next one.
+                            imageProxy.close();
+                        }
+                    }
+            );
+        } catch (Exception e) {
+            faceDetector.release();
+            imageProxy.close();
+
+            listener.onError(e);
+        }
+    }
+
+    // Converts the rotation reported by CameraX into the rotation constants of FirebaseVisionImageMetadata.
+    // https://firebase.google.com/docs/reference/android/com/google/firebase/ml/vision/common/FirebaseVisionImageMetadata#constants
+    static int toRotation(int rotationDegrees) {
+        switch (rotationDegrees) {
+            case 90:
+                return FirebaseVisionImageMetadata.ROTATION_90;
+            case 180:
+                return FirebaseVisionImageMetadata.ROTATION_180;
+            case 270:
+                return FirebaseVisionImageMetadata.ROTATION_270;
+            default:
+                return FirebaseVisionImageMetadata.ROTATION_0;
+        }
+    }
+}
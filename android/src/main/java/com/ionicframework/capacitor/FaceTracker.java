@@ -0,0 +1,161 @@
+package com.ionicframework.capacitor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+// Keeps the state of every tracked face across consecutive frames, by the trackingId assigned by the detector.
+// Smooths the bounds, Euler angles and landmarks of the faces, and in delta mode drops the faces which did not move since they were last returned.
+// The state of a face is evicted once it was not seen for the TTL, and its id is reported as removed.
+final class FaceTracker {
+    static final class Update {
+        // The faces to return, all tracked and untracked faces, or in delta mode only the new and moved ones.
+        final List<DetectedFace> faces;
+        // The tracking ids of the faces which disappeared.
+        final List<Integer> removed;
+
+        Update(List<DetectedFace> faces, List<Integer> removed) {
+            this.faces = faces;
+            this.removed = removed;
+        }
+    }
+
+    private static final class State {
+        long lastSeenNanos;
+
+        // Left, top, right, bottom.
+        final OneEuroFilter[] boundsFilters = new OneEuroFilter[4];
+        // Y, Z.
+        final OneEuroFilter[] angleFilters = new OneEuroFilter[2];
+        // X, y of every landmark type.
+        final Map<Integer, OneEuroFilter[]> landmarkFilters = new HashMap<>();
+
+        // The bounds and angles of the face when it was last returned in delta mode.
+        boolean returned;
+        int returnedLeft;
+        int returnedTop;
+        int returnedRight;
+        int returnedBottom;
+        float returnedAngleY;
+        float returnedAngleZ;
+    }
+
+    final TrackingOptions options;
+
+    private final Map<Integer, State> states = new HashMap<>();
+
+    FaceTracker(TrackingOptions options) {
+        this.options = options;
+    }
+
+    // Updates the state with the faces of a frame, smoothing the faces in place.
+    synchronized Update update(List<DetectedFace> faces, long timestampNanos) {
+        List<DetectedFace> result = new ArrayList<>(faces.size());
+
+        for (DetectedFace face : faces) {
+            // Faces without an id cannot be related to earlier frames and are returned as they are.
+            if (face.trackingId == DetectedFace.INVALID_ID) {
+                result.add(face);
+                continue;
+            }
+
+            State state = states.get(face.trackingId);
+            if (state == null) {
+                state = new State();
+                states.put(face.trackingId, state);
+            }
+            state.lastSeenNanos = Math.max(state.lastSeenNanos, timestampNanos);
+
+            if (options.smoothing) {
+                smooth(face, state, timestampNanos);
+            }
+
+            if (!options.delta || moved(face, state)) {
+                state.returned = true;
+                state.returnedLeft = face.left;
+                state.returnedTop = face.top;
+                state.returnedRight = face.right;
+                state.returnedBottom = face.bottom;
+                state.returnedAngleY = face.headEulerAngleY;
+                state.returnedAngleZ = face.headEulerAngleZ;
+
+                result.add(face);
+            }
+        }
+
+        return new Update(result, evict(timestampNanos));
+    }
+
+    synchronized void clear() {
+        states.clear();
+    }
+
+    synchronized int size() {
+        return states.size();
+    }
+
+    private void smooth(DetectedFace face, State state, long timestampNanos) {
+        face.left = Math.round(filter(state.boundsFilters, 0, face.left, timestampNanos));
+        face.top = Math.round(filter(state.boundsFilters, 1, face.top, timestampNanos));
+        face.right = Math.round(filter(state.boundsFilters, 2, face.right, timestampNanos));
+        face.bottom = Math.round(filter(state.boundsFilters, 3, face.bottom, timestampNanos));
+
+        face.headEulerAngleY = filter(state.angleFilters, 0, face.headEulerAngleY, timestampNanos);
+        face.headEulerAngleZ = filter(state.angleFilters, 1, face.headEulerAngleZ, timestampNanos);
+
+        for (DetectedFace.Landmark landmark : face.landmarks) {
+            OneEuroFilter[] filters = state.landmarkFilters.get(landmark.type);
+            if (filters == null) {
+                filters = new OneEuroFilter[2];
+                state.landmarkFilters.put(landmark.type, filters);
+            }
+
+            landmark.x = filter(filters, 0, landmark.x, timestampNanos);
+            landmark.y = filter(filters, 1, landmark.y, timestampNanos);
+        }
+    }
+
+    private float filter(OneEuroFilter[] filters, int index, float value, long timestampNanos) {
+        if (filters[index] == null) {
+            filters[index] = new OneEuroFilter(options.minCutoff, options.beta, options.derivateCutoff);
+        }
+
+        return (float) filters[index].filter(value, timestampNanos);
+    }
+
+    private boolean moved(DetectedFace face, State state) {
+        if (!state.returned) {
+            return true;
+        }
+
+        float threshold = options.deltaThreshold;
+
+        return Math.abs(face.left - state.returnedLeft) > threshold
+                || Math.abs(face.top - state.returnedTop) > threshold
+                || Math.abs(face.right - state.returnedRight) > threshold
+                || Math.abs(face.bottom - state.returnedBottom) > threshold
+                || Math.abs(face.headEulerAngleY - state.returnedAngleY) > threshold
+                || Math.abs(face.headEulerAngleZ - state.returnedAngleZ) > threshold;
+    }
+
+    private List<Integer> evict(long timestampNanos) {
+        List<Integer> removed = new ArrayList<>();
+
+        long ttlNanos = options.ttlMs * 1_000_000L;
+
+        Iterator<Map.Entry<Integer, State>> iterator = states.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Integer, State> entry = iterator.next();
+
+            if (timestampNanos - entry.getValue().lastSeenNanos > ttlNanos) {
+                iterator.remove();
+
+                removed.add(entry.getKey());
+            }
+        }
+
+        return removed;
+    }
+}
@@ -0,0 +1,275 @@
+package com.ionicframework.capacitor;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// The attributes of a face requested by the "fields" option, e.g. ["bounds", "trackingId", "contours.FACE"].
+// A projection is compiled once per distinct field list and decides which detector modes are needed and which attributes are copied and serialized.
+final class FieldProjection {
+    // https://firebase.google.com/docs/reference/android/com/google/firebase/ml/vision/face/FirebaseVisionFaceLandmark#constant-summary
+    private static final Map<String, Integer> LANDMARK_TYPES = new HashMap<>();
+
+    static {
+        LANDMARK_TYPES.put("MOUTH_BOTTOM", 0);
+        LANDMARK_TYPES.put("LEFT_CHEEK", 1);
+        LANDMARK_TYPES.put("LEFT_EAR", 3);
+        LANDMARK_TYPES.put("LEFT_EYE", 4);
+        LANDMARK_TYPES.put("MOUTH_LEFT", 5);
+        LANDMARK_TYPES.put("NOSE_BASE", 6);
+        LANDMARK_TYPES.put("RIGHT_CHEEK", 7);
+        LANDMARK_TYPES.put("RIGHT_EAR", 9);
+        LANDMARK_TYPES.put("RIGHT_EYE", 10);
+        LANDMARK_TYPES.put("MOUTH_RIGHT", 11);
+    }
+
+    // https://firebase.google.com/docs/reference/android/com/google/firebase/ml/vision/face/FirebaseVisionFaceContour#constant-summary
+    private static final Map<String, Integer> CONTOUR_TYPES = new HashMap<>();
+
+    static {
+        CONTOUR_TYPES.put("ALL_POINTS", 1);
+        CONTOUR_TYPES.put("FACE", 2);
+        CONTOUR_TYPES.put("LEFT_EYEBROW_TOP", 3);
+        CONTOUR_TYPES.put("LEFT_EYEBROW_BOTTOM", 4);
+        CONTOUR_TYPES.put("RIGHT_EYEBROW_TOP", 5);
+        CONTOUR_TYPES.put("RIGHT_EYEBROW_BOTTOM", 6);
+        CONTOUR_TYPES.put("LEFT_EYE", 7);
+        CONTOUR_TYPES.put("RIGHT_EYE", 8);
+        CONTOUR_TYPES.put("UPPER_LIP_TOP", 9);
+        CONTOUR_TYPES.put("UPPER_LIP_BOTTOM", 10);
+        CONTOUR_TYPES.put("LOWER_LIP_TOP", 11);
+        CONTOUR_TYPES.put("LOWER_LIP_BOTTOM", 12);
+        CONTOUR_TYPES.put("NOSE_BRIDGE", 13);
+        CONTOUR_TYPES.put("NOSE_BOTTOM", 14);
+    }
+
+    private static final int ALL_TYPES = ~0;
+
+    // Every attribute, with bounds in their original shape. Used if no fields are given.
+    static final FieldProjection ALL = new FieldProjection(
+            true, false, ALL_TYPES, ALL_TYPES, true, true, true, true, true, true
+    );
+
+    private static final int MAX_CACHED_PROJECTIONS = 32;
+
+    private static final Map<String, FieldProjection> CACHE = new LinkedHashMap<String, FieldProjection>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, FieldProjection> eldest) {
+            return size() > MAX_CACHED_PROJECTIONS;
+        }
+    };
+
+    final boolean bounds;
+    // Whether bounds are reduced to x, y, width and height, without repeating them as left, top, right and bottom.
+    final boolean compactBounds;
+
+    // Bit masks of the requested landmark and contour types.
+    final int landmarkTypes;
+    final int contourTypes;
+
+    final boolean headEulerAngleY;
+    final boolean headEulerAngleZ;
+
+    final boolean leftEyeOpenProbability;
+    final boolean rightEyeOpenProbability;
+    final boolean smilingProbability;
+
+    final boolean trackingId;
+
+    private FieldProjection(
+            boolean bounds,
+            boolean compactBounds,
+            int landmarkTypes,
+            int contourTypes,
+            boolean headEulerAngleY,
+            boolean headEulerAngleZ,
+            boolean leftEyeOpenProbability,
+            boolean rightEyeOpenProbability,
+            boolean smilingProbability,
+            boolean trackingId
+    ) {
+        this.bounds = bounds;
+        this.compactBounds = compactBounds;
+        this.landmarkTypes = landmarkTypes;
+        this.contourTypes = contourTypes;
+        this.headEulerAngleY = headEulerAngleY;
+        this.headEulerAngleZ = headEulerAngleZ;
+        this.leftEyeOpenProbability = leftEyeOpenProbability;
+        this.rightEyeOpenProbability = rightEyeOpenProbability;
+        this.smilingProbability = smilingProbability;
+        this.trackingId = trackingId;
+    }
+
+    // Returns the compiled projection of the field list, compiling it on first use.
+    static FieldProjection fromJSONArray(JSONArray fieldsArray) throws JSONException {
+        if (fieldsArray == null) {
+            return ALL;
+        }
+
+        String key = fieldsArray.toString();
+
+        synchronized (CACHE) {
+            FieldProjection projection = CACHE.get(key);
+            if (projection != null) {
+                return projection;
+            }
+        }
+
+        String[] fields = new String[fieldsArray.length()];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = fieldsArray.getString(i);
+        }
+
+        FieldProjection projection = compile(fields);
+
+        synchronized (CACHE) {
+            CACHE.put(key, projection);
+        }
+
+        return projection;
+    }
+
+    static FieldProjection compile(String... fields) {
+        boolean bounds = false;
+        int landmarkTypes = 0;
+        int contourTypes = 0;
+        boolean headEulerAngleY = false;
+        boolean headEulerAngleZ = false;
+        boolean leftEyeOpenProbability = false;
+        boolean rightEyeOpenProbability = false;
+        boolean smilingProbability = false;
+        boolean trackingId = false;
+
+        for (String field : fields) {
+            if (field.startsWith("landmarks.")) {
+                landmarkTypes |= 1 << type(LANDMARK_TYPES, field);
+                continue;
+            }
+            if (field.startsWith("contours.")) {
+                contourTypes |= 1 << type(CONTOUR_TYPES, field);
+                continue;
+            }
+
+            switch (field) {
+                case "bounds":
+                    bounds = true;
+                    break;
+                case "landmarks":
+                    landmarkTypes = ALL_TYPES;
+                    break;
+                case "contours":
+                    contourTypes = ALL_TYPES;
+                    break;
+                case "headEulerAngleY":
+                    headEulerAngleY = true;
+                    break;
+                case "headEulerAngleZ":
+                    headEulerAngleZ = true;
+                    break;
+                case "leftEyeOpenProbability":
+                    leftEyeOpenProbability = true;
+                    break;
+                case "rightEyeOpenProbability":
+                    rightEyeOpenProbability = true;
+                    break;
+                case "smilingProbability":
+                    smilingProbability = true;
+                    break;
+                case "trackingId":
+                    trackingId = true;
+                    break;
+                default:
+                    throw new IllegalArgumentException(String.format(Locale.ROOT, "Unknown field \"%s\"", field));
+            }
+        }
+
+        return new FieldProjection(
+                bounds,
+                true,
+                landmarkTypes,
+                contourTypes,
+                headEulerAngleY,
+                headEulerAngleZ,
+                leftEyeOpenProbability,
+                rightEyeOpenProbability,
+                smilingProbability,
+                trackingId
+        );
+    }
+
+    private static int type(Map<String, Integer> types, String field) {
+        Integer type = types.get(field.substring(field.indexOf('.') + 1));
+
+        if (type == null) {
+            throw new IllegalArgumentException(String.format(Locale.ROOT, "Unknown field \"%s\"", field));
+        }
+
+        return type;
+    }
+
+    boolean hasLandmark(int type) {
+        return (landmarkTypes & 1 << type) != 0;
+    }
+
+    boolean hasContour(int type) {
+        return (contourTypes & 1 << type) != 0;
+    }
+
+    boolean hasClassifications() {
+        return leftEyeOpenProbability || rightEyeOpenProbability || smilingProbability;
+    }
+
+    // Returns this projection with the tracking id, which the face tracker relates the faces of consecutive frames by.
+    FieldProjection withTrackingId() {
+        if (trackingId) {
+            return this;
+        }
+
+        return new FieldProjection(
+                bounds,
+                compactBounds,
+                landmarkTypes,
+                contourTypes,
+                headEulerAngleY,
+                headEulerAngleZ,
+                leftEyeOpenProbability,
+                rightEyeOpenProbability,
+                smilingProbability,
+                true
+        );
+    }
+
+    // Turns off the detector modes producing attributes which are not requested, so they are never computed.
+    FaceDetectorConfig apply(FaceDetectorConfig config) {
+        return new FaceDetectorConfig(
+                config.performanceMode,
+                landmarkTypes != 0 ? config.landmarkMode : FaceDetectorConfig.NO_LANDMARKS,
+                hasClassifications() ? config.classificationMode : FaceDetectorConfig.NO_CLASSIFICATIONS,
+                contourTypes != 0 ? config.contourMode : FaceDetectorConfig.NO_CONTOURS,
+                config.minFaceSize,
+                config.enableTracking
+        );
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                Locale.ROOT,
+                "bounds=%b,compactBounds=%b,landmarkTypes=%x,contourTypes=%x,headEulerAngleY=%b,headEulerAngleZ=%b,leftEyeOpenProbability=%b,rightEyeOpenProbability=%b,smilingProbability=%b,trackingId=%b",
+                bounds,
+                compactBounds,
+                landmarkTypes,
+                contourTypes,
+                headEulerAngleY,
+                headEulerAngleZ,
+                leftEyeOpenProbability,
+                rightEyeOpenProbability,
+                smilingProbability,
+                trackingId
+        );
+    }
+}
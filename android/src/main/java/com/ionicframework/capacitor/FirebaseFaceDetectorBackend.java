@@ -0,0 +1,99 @@
+package com.ionicframework.capacitor;
+
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.ml.vision.FirebaseVision;
+import com.google.firebase.ml.vision.common.FirebaseVisionImage;
+import com.google.firebase.ml.vision.face.FirebaseVisionFace;
+import com.google.firebase.ml.vision.face.FirebaseVisionFaceDetector;
+import com.google.firebase.ml.vision.face.FirebaseVisionFaceDetectorOptions;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+// Detects faces with the cached FirebaseVisionFaceDetectors.
+// https://firebase.google.com/docs/reference/android/com/google/firebase/ml/vision/face/FirebaseVisionFaceDetector
+final class FirebaseFaceDetectorBackend implements FaceDetectorBackend<FirebaseVisionImage> {
+    // The number of face detectors kept alive, by their normalized options.
+    static final int MAX_DETECTORS = 4;
+
+    private final DetectorCache<FaceDetectorConfig, FirebaseVisionFaceDetector> faceDetectorCache;
+
+    FirebaseFaceDetectorBackend(DetectorCache<FaceDetectorConfig, FirebaseVisionFaceDetector> faceDetectorCache) {
+        this.faceDetectorCache = faceDetectorCache;
+    }
+
+    @Override
+    public Detector<FirebaseVisionImage> acquire(FaceDetectorConfig config) {
+        // Gets a cached FirebaseVisionFaceDetector that detects faces in a supplied image.
+        final DetectorCache.Entry<FaceDetectorConfig, FirebaseVisionFaceDetector> faceDetector = faceDetectorCache.acquire(config);
+
+        return new Detector<FirebaseVisionImage>() {
+            @Override
+            public void detect(FirebaseVisionImage image, ImageTransform transform, FieldProjection projection, Executor executor, Callback callback) {
+                // Detects human faces from the supplied image.
+                Task<List<FirebaseVisionFace>> task = faceDetector.detector.detectInImage(
+                        image
+                );
+
+                task
+                        .addOnSuccessListener(
+                                executor,
+                                // A Task that asynchronously returns a List of detected FirebaseVisionFaces.
+                                (List<FirebaseVisionFace> faces) -> {
+                                    List<DetectedFace> detectedFaces;
+                                    try {
+                                        detectedFaces = FaceConverter.convert(faces, transform, projection);
+                                    } catch (RuntimeException e) {
+                                        callback.onFailure(e);
+                                        return;
+                                    }
+
+                                    callback.onSuccess(detectedFaces);
+                                }
+                        )
+                        .addOnFailureListener(
+                                executor,
+                                callback::onFailure
+                        );
+            }
+
+            @Override
+            public void release() {
+                // Hands the detector back, so that it is never closed while still in use.
+                faceDetectorCache.release(faceDetector);
+            }
+        };
+    }
+
+    // Gets a FirebaseVisionFaceDetector that detects faces in a supplied image, the factory of the face detector cache.
+    // https://firebase.google.com/docs/reference/android/com/google/firebase/ml/vision/face/FirebaseVisionFaceDetector
+    static FirebaseVisionFaceDetector createDetector(FaceDetectorConfig config) {
+        return FirebaseVision.getInstance().getVisionFaceDetector(
+                // The options for the face detector.
+                toOptions(config)
+        );
+    }
+
+    static FirebaseVisionFaceDetectorOptions toOptions(FaceDetectorConfig config) {
+        // Builder class of FirebaseVisionFaceDetectorOptions.
+        // https://firebase.google.com/docs/reference/android/com/google/firebase/ml/vision/face/FirebaseVisionFaceDetectorOptions.Builder
+        FirebaseVisionFaceDetectorOptions.Builder builder = new FirebaseVisionFaceDetectorOptions.Builder()
+                // Extended option for controlling additional accuracy / speed trade-offs in performing face detection.
+                .setPerformanceMode(config.performanceMode)
+                // Sets whether to detect no landmarks or all landmarks.
+                .setLandmarkMode(config.landmarkMode)
+                // Indicates whether to run additional classifiers for characterizing attributes such as "smiling" and "eyes open".
+                .setClassificationMode(config.classificationMode)
+                // Sets whether to detect no contours or all contours.
+                .setContourMode(config.contourMode)
+                // Sets the smallest desired face size, expressed as a proportion of the width of the head to the image width.
+                .setMinFaceSize(config.minFaceSize);
+
+        if (config.enableTracking) {
+            // Enables face tracking, which will maintain a consistent ID for each face when processing consecutive frames.
+            builder.enableTracking();
+        }
+
+        return builder.build();
+    }
+}
@@ -1,8 +1,18 @@
 package com.ionicframework.capacitor;
 
-import android.graphics.BitmapFactory;
-import android.graphics.Rect;
-import android.util.Base64;
+import android.Manifest;
+import android.content.ComponentCallbacks2;
+import android.content.pm.PackageManager;
+import android.content.res.Configuration;
+import android.graphics.Bitmap;
+import android.os.SystemClock;
+import android.util.Log;
+import android.util.Size;
+
+import androidx.camera.core.CameraSelector;
+import androidx.camera.core.ImageAnalysis;
+import androidx.camera.lifecycle.ProcessCameraProvider;
+import androidx.core.content.ContextCompat;
 
 import com.getcapacitor.JSArray;
 import com.getcapacitor.JSObject;
@@ -11,363 +21,1190 @@ import com.getcapacitor.Plugin;
 import com.getcapacitor.PluginCall;
 import com.getcapacitor.PluginMethod;
 
-import com.google.firebase.ml.vision.FirebaseVision;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.firebase.ml.vision.common.FirebaseVisionImage;
-import com.google.firebase.ml.vision.common.FirebaseVisionPoint;
-import com.google.firebase.ml.vision.face.FirebaseVisionFace;
-import com.google.firebase.ml.vision.face.FirebaseVisionFaceContour;
 import com.google.firebase.ml.vision.face.FirebaseVisionFaceDetector;
-import com.google.firebase.ml.vision.face.FirebaseVisionFaceDetectorOptions;
-import com.google.firebase.ml.vision.face.FirebaseVisionFaceLandmark;
-import com.google.firebase.ml.vision.face.FirebaseVisionFaceContour.ContourType;
-import com.google.firebase.ml.vision.face.FirebaseVisionFaceLandmark.LandmarkType;
 
-import java.util.Arrays;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 @NativePlugin(
         // Some Plugins will require you to request permissions.
         // First declare your plugin permissions.
         permissions = {
-        }
+                Manifest.permission.CAMERA
+        },
+        permissionRequestCode = FirebaseMLVision.REQUEST_CAMERA_PERMISSION
 )
 public class FirebaseMLVision extends Plugin {
-    private interface PointHelper {
-        JSObject get(FirebaseVisionPoint point);
+    static final int REQUEST_CAMERA_PERMISSION = 9051;
+
+    // Default target resolution of the camera frames fed into the face detector.
+    private static final int DEFAULT_STREAM_WIDTH = 640;
+    private static final int DEFAULT_STREAM_HEIGHT = 480;
+
+    // Side length of the blank image used to load the detector models ahead of the first detection.
+    private static final int WARM_UP_IMAGE_SIZE = 64;
+
+    // Rejection code of calls dropped by the frame scheduler.
+    static final String FRAME_SKIPPED = "FRAME_SKIPPED";
+
+    // The memory retained by the pools while idle, trimmed when the system runs low on memory.
+    private static final long BITMAP_POOL_MAX_BYTES = 16 * 1024 * 1024;
+    // Camera photos of 12 to 48 megapixels are about 3 to 8 MB as JPEG, and buffers larger than the cap are never pooled.
+    // Leaves room for the buffers of the calls decoded concurrently with the default scheduler settings.
+    private static final long BUFFER_POOL_MAX_BYTES = 16 * 1024 * 1024;
+
+    // Decoding is CPU bound, and every decode thread holds a full size bitmap, so more threads than a few cores only add memory.
+    private static final int BATCH_DECODE_MAX_THREADS = 4;
+
+    // Closes the detectors which have been idle for too long.
+    private final ScheduledExecutorService detectorEvictionExecutor = Executors.newSingleThreadScheduledExecutor();
+
+    // Keeps face detectors (and their loaded models) alive between calls, keyed by the normalized detector options.
+    private final DetectorCache<FaceDetectorConfig, FirebaseVisionFaceDetector> faceDetectorCache = new DetectorCache<>(
+            FirebaseFaceDetectorBackend::createDetector,
+            (FaceDetectorConfig config, IOException e) -> Log.w(getLogTag(), "Unable to close face detector " + config, e),
+            FirebaseFaceDetectorBackend.MAX_DETECTORS,
+            DetectorCache.DEFAULT_IDLE_TIMEOUT_MS,
+            SystemClock::elapsedRealtime,
+            detectorEvictionExecutor
+    );
+
+    // Runs the detections on the cached FirebaseVisionFaceDetectors.
+    private final FaceDetectorBackend<FirebaseVisionImage> faceDetectorBackend = new FirebaseFaceDetectorBackend(faceDetectorCache);
+
+    // Runs the face, barcode, text and label detectors of the detect calls, reusing the detectors across calls.
+    private final VisionDetectors visionDetectors = new VisionDetectors(faceDetectorBackend, detectorEvictionExecutor);
+
+    // Decodes the images of the calls dispatched by the frame scheduler, and runs their detection callbacks and the building of their results.
+    private final DetectionExecutor detectionExecutor = new DetectionExecutor("FirebaseMLVision", DetectionExecutor.DEFAULT_THREADS);
+
+    // Bounds the number of concurrent detectInImage calls, queueing or dropping the calls above the limit.
+    private final FrameScheduler<DetectionRequest<PluginCall>> frameScheduler = new FrameScheduler<>(
+            detectionExecutor,
+            (DetectionRequest<PluginCall> request, long queueWaitNanos, Runnable done) -> detectFrame(
+                    request,
+                    queueWaitNanos,
+                    () -> {
+                        unregister(request);
+
+                        done.run();
+                    }
+            ),
+            (DetectionRequest<PluginCall> request) -> {
+                unregister(request);
+
+                request.call.reject("Frame skipped", FRAME_SKIPPED);
+            }
+    );
+
+    // The detectInImage calls passing a requestId, queued or in flight, by their request id.
+    private final Map<String, DetectionRequest<PluginCall>> requests = new ConcurrentHashMap<>();
+
+    // Decoded bitmaps handed back once their detection completed, reused to decode the next images of the same size.
+    private final BucketedPool<Bitmap> bitmapPool = new BucketedPool<>(BITMAP_POOL_MAX_BYTES, Bitmap::getAllocationByteCount, Bitmap::recycle);
+
+    // Buffers of Base64 decoded images, handed back as soon as the bitmap was decoded.
+    private final BucketedPool<byte[]> bufferPool = new BucketedPool<>(BUFFER_POOL_MAX_BYTES, (byte[] buffer) -> buffer.length, (byte[] buffer) -> {
+    });
+
+    // Runs the disk writes of the result cache.
+    private final ExecutorService cacheExecutor = Executors.newSingleThreadExecutor();
+
+    // The faces of earlier detectInImage calls passing the "cache" option, by the identity of their image and their options.
+    private final FaceResultCache resultCache = new FaceResultCache(FaceResultCache.DEFAULT_MAX_BYTES, cacheExecutor);
+
+    // The subdirectory of the app cache directory holding the disk tier of the result cache.
+    private static final String RESULT_CACHE_DIRECTORY = "firebase-ml-vision-faces";
+
+    // Trims the pools when the system asks the app to release memory.
+    // https://developer.android.com/reference/android/content/ComponentCallbacks2
+    private final ComponentCallbacks2 memoryCallbacks = new ComponentCallbacks2() {
+        @Override
+        public void onTrimMemory(int level) {
+            if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+                // The app is likely to be killed, or the system is about to kill background processes.
+                bitmapPool.clear();
+                bufferPool.clear();
+
+                // The disk tier of the result cache is kept.
+                resultCache.trimToSize(0);
+            } else if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+                // The system runs low on memory, or the UI was hidden.
+                bitmapPool.trimToSize(bitmapPool.getRetainedBytes() / 2);
+                bufferPool.trimToSize(bufferPool.getRetainedBytes() / 2);
+            }
+        }
+
+        @Override
+        public void onLowMemory() {
+            bitmapPool.clear();
+            bufferPool.clear();
+            resultCache.trimToSize(0);
+        }
+
+        @Override
+        public void onConfigurationChanged(Configuration configuration) {
+        }
+    };
+
+    // The per-stage timings and sizes of the detectInImage calls.
+    private final DetectionMetrics metrics = new DetectionMetrics();
+
+    // Acquires a detector, detects and serializes the faces of the decoded detectInImage calls, recording their stages into the metrics.
+    private final FaceDetectionPipeline<FirebaseVisionImage> facePipeline = new FaceDetectionPipeline<>(
+            faceDetectorBackend,
+            detectionExecutor,
+            metrics,
+            SystemClock::elapsedRealtimeNanos
+    );
+
+    // The running detectInImages calls by their batch id.
+    private final Map<String, BatchDetection> batches = new ConcurrentHashMap<>();
+
+    // Decodes the images of all batches, created with the first batch.
+    // A fixed number of threads by the number of cores, shared by the running batches, which end once idle.
+    private ThreadPoolExecutor batchDecodeExecutor;
+
+    private synchronized ExecutorService batchDecodeExecutor() {
+        if (batchDecodeExecutor == null) {
+            int threads = Math.max(2, Math.min(Runtime.getRuntime().availableProcessors(), BATCH_DECODE_MAX_THREADS));
+
+            batchDecodeExecutor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+            batchDecodeExecutor.allowCoreThreadTimeOut(true);
+        }
+
+        return batchDecodeExecutor;
+    }
+
+    // The state of the camera stream, only accessed from the main thread.
+    private ExecutorService streamExecutor;
+    private ProcessCameraProvider cameraProvider;
+    private ImageAnalysis imageAnalysis;
+    private FaceStreamAnalyzer faceStreamAnalyzer;
+    private PluginCall streamCall;
+    private volatile FieldProjection streamProjection = FieldProjection.ALL;
+    private volatile String streamResultFormat = FaceResults.FORMAT_JSON;
+    private volatile FaceTracker streamTracker;
+
+    // Smooths and diffs the faces of consecutive detectInImage calls passing the "tracking" option.
+    private FaceTracker imageTracker;
+
+    private synchronized FaceTracker imageTracker(TrackingOptions trackingOptions) {
+        // A tracker with other options starts over.
+        if (imageTracker == null || !imageTracker.options.equals(trackingOptions)) {
+            imageTracker = new FaceTracker(trackingOptions);
+        }
+
+        return imageTracker;
     }
 
-    PointHelper pointHelper = (point) -> {
-        JSObject pointObject = new JSObject();
+    @Override
+    public void load() {
+        super.load();
 
-        // Gets x coordinate.
-        pointObject.put("x", point.getX());
-        // Gets y coordinate.
-        pointObject.put("y", point.getY());
-        // Gets z coordinate (or depth).
-        pointObject.put("z", point.getZ());
+        getContext().registerComponentCallbacks(memoryCallbacks);
+    }
 
-        return pointObject;
-    };
+    // Adapts the settings of the detectInImage calls passing the "adaptive" option.
+    private AdaptiveGovernor imageGovernor;
 
-    private interface LandmarkHelper {
-        JSObject get(FirebaseVisionFace face, @LandmarkType int landmarkType);
+    private synchronized AdaptiveGovernor imageGovernor(AdaptiveOptions adaptiveOptions) {
+        // A governor with another budget starts over at the requested settings.
+        if (imageGovernor == null || !imageGovernor.options.equals(adaptiveOptions)) {
+            imageGovernor = new AdaptiveGovernor(adaptiveOptions, true);
+        }
+
+        return imageGovernor;
     }
 
-    LandmarkHelper landmarkHelper = (face, landmarkType) -> {
-        // Represent a face landmark. A landmark is a point on a detected face, such as an eye, nose, or mouth.
-        // https://firebase.google.com/docs/reference/android/com/google/firebase/ml/vision/face/FirebaseVisionFaceLandmark
-        FirebaseVisionFaceLandmark landmark = face.getLandmark(landmarkType);
+    @PluginMethod()
+    public void detectInImage(final PluginCall call) {
+        //Log.i(getLogTag(), "detectInImage");
 
-        JSObject landmarkObject = new JSObject();
+        final long startedAt = SystemClock.elapsedRealtimeNanos();
 
-        if (landmark != null) {
-            // Represent a 2D or 3D point for FirebaseVision.
-            // https://firebase.google.com/docs/reference/android/com/google/firebase/ml/vision/common/FirebaseVisionPoint
-            FirebaseVisionPoint point = landmark.getPosition();
+        final DetectionRequest<PluginCall> request;
+        try {
+            request = new DetectionRequest<>(
+                    call.getString("requestId", null),
+                    call,
+                    System.nanoTime(),
+                    call.getData().optLong("deadlineMs", 0),
+                    resultCacheKey(call)
+            );
+        } catch (
+                Exception e) {
+            call.error(e.getLocalizedMessage(), e);
+            return;
+        }
 
-            JSObject pointObject = pointHelper.get(point);
+        // Calls with a request id can be cancelled through cancel().
+        if (request.id != null && requests.putIfAbsent(request.id, request) != null) {
+            call.error("Request " + request.id + " is already running");
+            return;
+        }
 
-            // Gets the FirebaseVisionFaceLandmark.LandmarkType type.
-            landmarkObject.put("type", landmark.getLandmarkType());
-            // Gets a 2D point for landmark position, where (0, 0) is the upper-left corner of the image.
-            landmarkObject.put("position", pointObject);
+        if (request.cacheKey == null) {
+            // Decoding and detection start once the scheduler grants the call a slot.
+            frameScheduler.submit(request);
+            return;
         }
 
-        return landmarkObject;
-    };
+        // Cached faces are passed back without taking a slot of the scheduler, only misses are scheduled.
+        // Disk reads run on the cache executor, so that a miss never holds a slot while reading.
+        resultCache.get(
+                request.cacheKey,
+                (List<DetectedFace> cachedFaces) -> {
+                    if (cachedFaces == null) {
+                        frameScheduler.submit(request);
+                        return;
+                    }
+
+                    unregister(request);
+
+                    if (abandon(request)) {
+                        return;
+                    }
+
+                    // The stages of a cached call, recorded into the metrics like the detected ones.
+                    DetectionTimings timings = new DetectionTimings();
+                    timings.cached = true;
+                    timings.cacheLookupNanos = SystemClock.elapsedRealtimeNanos() - startedAt;
+
+                    try {
+                        JSObject data = new JSObject();
+                        data.put("queueWaitMs", 0);
+                        data.put("cached", true);
+
+                        facePipeline.serialize(
+                                cachedFaces,
+                                FieldProjection.fromJSONArray(call.getArray("fields", null)),
+                                resultFormat(call),
+                                null,
+                                startedAt,
+                                timings,
+                                call.getBoolean("includeTimings", false),
+                                data
+                        );
+
+                        call.success(data);
+                    } catch (
+                            Exception e) {
+                        metrics.recordFailure();
+
+                        call.error(e.getLocalizedMessage(), e);
+                    }
+                }
+        );
+    }
+
+    // The key of the result cache of a call passing the "cache" option, or null if the call bypasses the cache.
+    // Trackers and governors depend on the earlier calls, and trackers smooth the faces in place, so their calls are never cached.
+    private String resultCacheKey(PluginCall call) throws JSONException {
+        if (!call.getBoolean("cache", false)
+                || TrackingOptions.fromJSONObject(call.getData()) != null
+                || AdaptiveOptions.fromJSONObject(call.getData()) != null) {
+            return null;
+        }
+
+        String path = imagePath(call);
+        String content = path == null ? call.getString("image", null) : null;
+        if (path == null && content == null) {
+            return null;
+        }
+
+        // Files are told apart by their modification time, Base64 content by its hash.
+        String imageId = path != null
+                ? ImageSource.identity(getContext(), ImageSource.toUri(path))
+                : FaceResultCache.contentId(content);
+        if (imageId == null) {
+            return null;
+        }
 
-    private interface ContourHelper {
-        JSObject get(FirebaseVisionFace face, @ContourType int contourType);
+        // The same normalized options as the detection, so that calls sharing a detector share their results.
+        FieldProjection projection = FieldProjection.fromJSONArray(call.getArray("fields", null));
+        FaceDetectorConfig config = projection.apply(
+                FaceDetectorConfig.fromJSONObject(call.getObject("options", null))
+        );
+
+        return FaceResultCache.key(imageId, config, projection, ImageDecodeOptions.fromJSONObject(call.getData()));
     }
 
-    ContourHelper contourHelper = (face, contourType) -> {
-        // Represent a face contour. A contour is a list of points on a detected face, such as the mouth.
-        // https://firebase.google.com/docs/reference/android/com/google/firebase/ml/vision/face/FirebaseVisionFaceContour
-        FirebaseVisionFaceContour contour = face.getContour(contourType);
+    private void unregister(DetectionRequest<PluginCall> request) {
+        if (request.id != null) {
+            requests.remove(request.id, request);
+        }
+    }
 
-        JSObject contourObject = new JSObject();
+    // Rejects the call if it was cancelled or its deadline passed, and returns whether it was.
+    private static boolean abandon(DetectionRequest<PluginCall> request) {
+        String reason = request.abandonReason(System.nanoTime());
+        if (reason == null) {
+            return false;
+        }
 
-        if (contour != null) {
-            // Represent a 2D or 3D point for FirebaseVision.
-            // https://firebase.google.com/docs/reference/android/com/google/firebase/ml/vision/common/FirebaseVisionPoint
-            List<FirebaseVisionPoint> points = contour.getPoints();
+        request.call.reject(
+                DetectionRequest.CANCELLED.equals(reason) ? "Request cancelled" : "Deadline exceeded",
+                reason
+        );
 
-            if (!points.isEmpty()) {
-                JSArray pointsArray = new JSArray();
+        return true;
+    }
 
-                for (FirebaseVisionPoint point : points) {
-                    JSObject pointObject = pointHelper.get(point);
+    @PluginMethod()
+    public void cancel(final PluginCall call) {
+        String requestId = call.getString("requestId", null);
+        if (requestId == null) {
+            call.error("Must provide a requestId");
+            return;
+        }
 
-                    pointsArray.put(pointObject);
-                }
+        boolean cancelled = false;
 
-                // Gets the FirebaseVisionFaceContour.ContourType type.
-                contourObject.put("type", contour.getFaceContourType());
-                // Gets a list of 2D points for this face contour, where (0, 0) is the upper-left corner of the image.
-                contourObject.put("points", pointsArray);
+        DetectionRequest<PluginCall> request = requests.get(requestId);
+        if (request != null) {
+            request.cancel();
+
+            if (frameScheduler.remove(request)) {
+                // The call never started, so it is rejected right away.
+                unregister(request);
+                abandon(request);
             }
+            // Otherwise the call stops at its next stage, at the latest before its result is built.
+
+            cancelled = true;
         }
 
-        return contourObject;
-    };
+        // Batches are cancelled by their batch id.
+        BatchDetection batch = batches.get(requestId);
+        if (batch != null) {
+            batch.cancel();
+
+            cancelled = true;
+        }
+
+        JSObject data = new JSObject();
+        // False if no such call is running, e.g. as it already completed.
+        data.put("cancelled", cancelled);
+
+        call.success(data);
+    }
 
     @PluginMethod()
-    public void detectInImage(final PluginCall call) {
+    public void configureScheduler(final PluginCall call) {
         try {
-            //Log.i(getLogTag(), "detectInImage");
+            frameScheduler.configure(
+                    call.getInt("maxInFlight", FrameScheduler.DEFAULT_MAX_IN_FLIGHT),
+                    call.getInt("maxQueued", FrameScheduler.DEFAULT_MAX_QUEUED),
+                    FrameScheduler.Policy.fromString(call.getString("policy", "queue"))
+            );
+
+            detectionExecutor.setThreads(call.getInt("threads", DetectionExecutor.DEFAULT_THREADS));
+
+            call.success();
+        } catch (
+                Exception e) {
+            call.error(e.getLocalizedMessage(), e);
+        }
+    }
+
+    // Runs a call of detectInImage once the scheduler dispatched it.
+    private void detectFrame(final DetectionRequest<PluginCall> request, final long queueWaitNanos, final Runnable done) {
+        final PluginCall call = request.call;
+
+        // Stale calls are dropped before any work is done.
+        if (abandon(request)) {
+            done.run();
+            return;
+        }
+
+        final long startedAt = SystemClock.elapsedRealtimeNanos();
+
+        // The durations of the stages of this call, recorded into the metrics once its result was built.
+        final DetectionTimings timings = new DetectionTimings();
+        timings.queueWaitNanos = queueWaitNanos;
+
+        // The decoded bitmap, handed back to the pool once the detection completed.
+        Bitmap bitmap = null;
+
+        try {
+            final String resultFormat = resultFormat(call);
+
+            final boolean includeTimings = call.getBoolean("includeTimings", false);
+
+            // Relates the faces to the faces of earlier calls by their tracking id.
+            TrackingOptions trackingOptions = TrackingOptions.fromJSONObject(call.getData());
+            final FaceTracker tracker = trackingOptions != null ? imageTracker(trackingOptions) : null;
+
+            // The attributes of the faces requested by the caller, compiled once per distinct field list.
+            FieldProjection fields = FieldProjection.fromJSONArray(call.getArray("fields", null));
+            final FieldProjection projection = tracker != null ? fields.withTrackingId() : fields;
+
+            // Normalizes the options, so that calls with the same effective options share one detector.
+            // Detector modes producing attributes which are not requested are turned off.
+            FaceDetectorConfig config = projection.apply(
+                    FaceDetectorConfig.fromJSONObject(call.getObject("options", null))
+            );
+            if (tracker != null) {
+                config = config.withTracking();
+            }
+
+            ImageDecodeOptions decodeOptions = ImageDecodeOptions.fromJSONObject(call.getData());
+
+            // Degrades the detector settings and the input resolution while the detections are slower than the latency budget.
+            AdaptiveOptions adaptiveOptions = AdaptiveOptions.fromJSONObject(call.getData());
+            final AdaptiveGovernor governor = adaptiveOptions != null ? imageGovernor(adaptiveOptions) : null;
+            final AdaptiveGovernor.Settings settings = governor != null ? governor.settings(config, decodeOptions.maxDimension) : null;
+            if (settings != null) {
+                config = settings.config;
+                decodeOptions = decodeOptions.withMaxDimension(settings.maxDimension);
+            }
 
             FirebaseVisionImage image = null;
-            FirebaseVisionFaceDetectorOptions options = null;
 
-            String content = call.getString("image", null);
-            if (content != null) {
-                final byte[] data = Base64.decode(content, Base64.DEFAULT);
+            // Maps the detected coordinates back to the original image, if it was downscaled or cropped while decoding.
+            ImageTransform transform = ImageTransform.IDENTITY;
+
+            String path = imagePath(call);
+            String content = path == null ? call.getString("image", null) : null;
+
+            // Set if the call missed the result cache, so that its faces are cached once detected.
+            final String resultCacheKey = request.cacheKey;
+
+            if (path != null || content != null) {
+                BitmapDecoder.DecodedImage decodedImage = decodeImage(path, content, decodeOptions, timings);
+
+                bitmap = decodedImage.bitmap;
 
                 // Creates a FirebaseVisionImage from a Bitmap, where the object in the image should be already up-right and no rotation is needed.
                 // https://firebase.google.com/docs/reference/android/com/google/firebase/ml/vision/common/FirebaseVisionImage
                 image = FirebaseVisionImage.fromBitmap(
-                        // Decode an immutable bitmap from the specified byte array.
-                        BitmapFactory.decodeByteArray(data, 0, data.length)
+                        decodedImage.bitmap
                 );
+
+                transform = decodedImage.transform;
             }
 
-            // Builder class of FirebaseVisionFaceDetectorOptions.
-            // https://firebase.google.com/docs/reference/android/com/google/firebase/ml/vision/face/FirebaseVisionFaceDetectorOptions.Builder
-            FirebaseVisionFaceDetectorOptions.Builder builder = new FirebaseVisionFaceDetectorOptions.Builder();
+            final ImageTransform imageTransform = transform;
+            final Bitmap decodedBitmap = bitmap;
 
-            JSObject optionsObject = call.getObject("options", null);
-            if (optionsObject != null) {
-                Integer performanceMode = optionsObject.getInteger("performanceMode");
-                Integer landmarkMode = optionsObject.getInteger("landmarkMode");
-                Integer classificationMode = optionsObject.getInteger("classificationMode");
-                Integer contourMode = optionsObject.getInteger("contourMode");
+            // Decoding may have taken long enough for the call to become stale.
+            if (abandon(request)) {
+                if (decodedBitmap != null) {
+                    BitmapDecoder.release(decodedBitmap, bitmapPool);
+                }
 
-                Boolean enableTracking = optionsObject.getBoolean("enableTracking", false);
+                done.run();
+                return;
+            }
 
-                if (performanceMode != null) {
-                    // Extended option for controlling additional accuracy / speed trade-offs in performing face detection.
-                    builder.setPerformanceMode(performanceMode);
-                }
-                if (landmarkMode != null) {
-                    // Sets whether to detect no landmarks or all landmarks.
-                    builder.setLandmarkMode(landmarkMode);
-                }
-                if (classificationMode != null) {
-                    // Indicates whether to run additional classifiers for characterizing attributes such as "smiling" and "eyes open".
-                    builder.setClassificationMode(classificationMode);
-                }
-                if (contourMode != null) {
-                    // Sets whether to detect no contours or all contours.
-                    builder.setContourMode(contourMode);
-                }
+            final JSObject data = new JSObject();
 
-                if (optionsObject.has("minFaceSize")) {
-                    Double minFaceSize = optionsObject.getDouble("minFaceSize");
+            // The time the call waited for the scheduler before it was decoded.
+            data.put("queueWaitMs", queueWaitNanos / 1e6);
 
-                    // Sets the smallest desired face size, expressed as a proportion of the width of the head to the image width.
-                    builder.setMinFaceSize(minFaceSize.floatValue());
-                }
+            if (settings != null) {
+                // The settings this image was detected with.
+                data.put("adaptive", settings.toJSONObject());
+            }
+
+            // Detects human faces from the supplied image, on a cached FirebaseVisionFaceDetector.
+            facePipeline.detect(
+                    image,
+                    imageTransform,
+                    config,
+                    projection,
+                    resultFormat,
+                    tracker,
+                    startedAt,
+                    timings,
+                    includeTimings,
+                    data,
+                    () -> {
+                        // The faces were copied, so the bitmap can be reused for the next calls.
+                        if (decodedBitmap != null) {
+                            BitmapDecoder.release(decodedBitmap, bitmapPool);
+                        }
+
+                        // Frees the slot of this call, which allows the next waiting call to proceed.
+                        done.run();
+                    },
+                    new FaceDetectionPipeline.Listener() {
+                        @Override
+                        public boolean onDetected(List<DetectedFace> faces) {
+                            //Log.i(getLogTag(), "addOnSuccessListener " + faces);
+
+                            if (resultCacheKey != null) {
+                                resultCache.put(resultCacheKey, faces);
+                            }
+
+                            if (governor != null) {
+                                // The stages affected by the settings of the governor.
+                                governor.record(timings.base64DecodeNanos + timings.bitmapDecodeNanos + timings.inferenceNanos);
+                            }
+
+                            // The detection cannot be interrupted, but the result of a stale call is never built.
+                            return !abandon(request);
+                        }
+
+                        @Override
+                        public void onSuccess() {
+                            call.success(data);
+                        }
+
+                        @Override
+                        public void onFailure(Exception e) {
+                            //Toast.makeText(getContext(), "Unable to detect in image: " + e, Toast.LENGTH_SHORT).show();
+
+                            //Log.i(getLogTag(), "Face detection failed " + e);
+
+                            call.error(e.getLocalizedMessage(), e);
+                        }
+                    }
+            );
+        } catch (
+                Exception e) {
+            if (bitmap != null) {
+                BitmapDecoder.release(bitmap, bitmapPool);
+            }
+
+            done.run();
+
+            metrics.recordFailure();
+
+            call.error(e.getLocalizedMessage(), e);
+        }
+    }
 
-                if (enableTracking == true) {
-                    // Enables face tracking, which will maintain a consistent ID for each face when processing consecutive frames.
-                    builder.enableTracking();
+    // The image of a call passed as a file path, a Capacitor web path or a file:// or content:// URI, which is decoded without passing its bytes through the bridge.
+    // Returns null if the image is passed as Base64 content, or not at all.
+    private static String imagePath(PluginCall call) {
+        String path = call.getString("path", call.getString("uri", null));
+
+        String content = call.getString("image", null);
+        if (path == null && content != null && ImageSource.isUri(content)) {
+            path = content;
+        }
+
+        return path;
+    }
+
+    // Decodes the image (or its region of interest) at the resolution needed for detection, recording the durations of the decode stages.
+    private BitmapDecoder.DecodedImage decodeImage(String path, String content, ImageDecodeOptions decodeOptions, DetectionTimings timings) throws IOException {
+        long decodeStartedAt = SystemClock.elapsedRealtimeNanos();
+
+        BitmapDecoder.DecodedImage decodedImage;
+        if (path != null) {
+            decodedImage = ImageSource.decode(getContext(), ImageSource.toUri(path), decodeOptions, bitmapPool);
+        } else {
+            // Decodes into a pooled buffer, instead of allocating a new array of the size of the encoded image for every call.
+            byte[] buffer = ImageSource.acquireBuffer(bufferPool, Base64Codec.maxDecodedLength(content));
+            try {
+                int length = Base64Codec.decode(content, buffer);
+
+                timings.base64DecodeNanos = SystemClock.elapsedRealtimeNanos() - decodeStartedAt;
+                decodeStartedAt += timings.base64DecodeNanos;
+
+                decodedImage = BitmapDecoder.decode(buffer, 0, length, decodeOptions, bitmapPool);
+            } finally {
+                // The decoded bitmap does not refer to the encoded bytes.
+                bufferPool.release(buffer);
+            }
+        }
+
+        timings.bitmapDecodeNanos = SystemClock.elapsedRealtimeNanos() - decodeStartedAt;
+        timings.bitmapBytes = decodedImage.bitmap.getAllocationByteCount();
+
+        return decodedImage;
+    }
+
+    @PluginMethod()
+    public void detect(final PluginCall call) {
+        // Decoding blocks, so it runs on the detection executor rather than on the plugin thread.
+        detectionExecutor.execute(() -> detectAll(call));
+    }
+
+    // Decodes the image of a detect call once, and runs all requested detectors on it.
+    private void detectAll(final PluginCall call) {
+        final long startedAt = SystemClock.elapsedRealtimeNanos();
+
+        // The decoded bitmap, handed back to the pool once all detectors completed.
+        Bitmap bitmap = null;
+
+        try {
+            final String resultFormat = resultFormat(call);
+
+            DetectorSelection selection = DetectorSelection.fromJSONObject(call.getObject("detectors", null));
+
+            ImageDecodeOptions decodeOptions = ImageDecodeOptions.fromJSONObject(call.getData());
+
+            String path = imagePath(call);
+            String content = path == null ? call.getString("image", null) : null;
+            if (path == null && content == null) {
+                call.error("Must provide an image, path or uri");
+                return;
+            }
+
+            final DetectionTimings decodeTimings = new DetectionTimings();
+
+            BitmapDecoder.DecodedImage decodedImage = decodeImage(path, content, decodeOptions, decodeTimings);
+
+            bitmap = decodedImage.bitmap;
+
+            final Bitmap decodedBitmap = bitmap;
+
+            // All detectors share one FirebaseVisionImage, so the image is converted into the format of the detectors only once.
+            visionDetectors.detect(
+                    FirebaseVisionImage.fromBitmap(decodedBitmap),
+                    decodedImage.transform,
+                    selection,
+                    resultFormat,
+                    detectionExecutor,
+                    (JSONObject results, JSONObject timings, JSONObject errors) -> {
+                        // The results were copied, so the bitmap can be reused for the next calls.
+                        BitmapDecoder.release(decodedBitmap, bitmapPool);
+
+                        // A call only fails if none of its detectors succeeded.
+                        if (results.length() == 0) {
+                            call.error("Detection failed: " + errors);
+                            return;
+                        }
+
+                        try {
+                            JSObject data = JSObject.fromJSONObject(results);
+
+                            timings.put("decodeMs", (decodeTimings.base64DecodeNanos + decodeTimings.bitmapDecodeNanos) / 1e6);
+                            timings.put("totalMs", (SystemClock.elapsedRealtimeNanos() - startedAt) / 1e6);
+                            data.put("timings", timings);
+
+                            // The messages of the failed detectors, by detector.
+                            if (errors.length() > 0) {
+                                data.put("errors", errors);
+                            }
+
+                            call.success(data);
+                        } catch (JSONException e) {
+                            call.error(e.getLocalizedMessage(), e);
+                        }
+                    }
+            );
+        } catch (
+                Exception e) {
+            if (bitmap != null) {
+                BitmapDecoder.release(bitmap, bitmapPool);
+            }
+
+            call.error(e.getLocalizedMessage(), e);
+        }
+    }
+
+    @PluginMethod()
+    public void resetTracking(final PluginCall call) {
+        // Forgets all tracked faces, the next frames start without smoothing history.
+        synchronized (this) {
+            imageTracker = null;
+        }
+
+        FaceTracker tracker = streamTracker;
+        if (tracker != null) {
+            tracker.clear();
+        }
+
+        call.success();
+    }
+
+    @PluginMethod()
+    public void getMetrics(final PluginCall call) {
+        try {
+            JSONObject data = metrics.toJSONObject();
+
+            JSONObject pools = new JSONObject();
+            pools.put("bitmaps", bitmapPool.toJSONObject());
+            pools.put("buffers", bufferPool.toJSONObject());
+            data.put("pools", pools);
+
+            data.put("resultCache", resultCache.toJSONObject());
+
+            call.success(JSObject.fromJSONObject(data));
+        } catch (
+                Exception e) {
+            call.error(e.getLocalizedMessage(), e);
+        }
+    }
+
+    @PluginMethod()
+    public void configureResultCache(final PluginCall call) {
+        try {
+            long maxBytes = call.getData().optLong("maxBytes", FaceResultCache.DEFAULT_MAX_BYTES);
+            long maxDiskBytes = call.getData().optLong("maxDiskBytes", FaceResultCache.DEFAULT_MAX_DISK_BYTES);
+            if (maxBytes < 0 || maxDiskBytes < 0) {
+                call.error("maxBytes and maxDiskBytes must not be negative");
+                return;
+            }
+
+            // The disk tier lives in the app cache directory, which the system may clear when it runs low on storage.
+            // https://developer.android.com/reference/android/content/Context#getCacheDir()
+            File directory = call.getBoolean("disk", false)
+                    ? new File(getContext().getCacheDir(), RESULT_CACHE_DIRECTORY)
+                    : null;
+
+            resultCache.configure(maxBytes, directory, maxDiskBytes);
+
+            call.success();
+        } catch (
+                Exception e) {
+            call.error(e.getLocalizedMessage(), e);
+        }
+    }
+
+    @PluginMethod()
+    public void clearResultCache(final PluginCall call) {
+        // Clears the disk tier off the main thread, and after any pending disk writes.
+        cacheExecutor.execute(
+                () -> {
+                    resultCache.clear();
+
+                    call.success();
                 }
+        );
+    }
+
+    @PluginMethod()
+    public void resetMetrics(final PluginCall call) {
+        metrics.reset();
+
+        call.success();
+    }
+
+    @PluginMethod()
+    public void detectInImages(final PluginCall call) {
+        try {
+            JSArray imagesArray = call.getArray("images", null);
+            if (imagesArray == null) {
+                call.error("Must provide images");
+                return;
+            }
+
+            List<String> images = imagesArray.toList();
+
+            String batchId = call.getString("batchId", UUID.randomUUID().toString());
+            if (batches.containsKey(batchId)) {
+                call.error("Batch " + batchId + " is already running");
+                return;
             }
 
-            // Builds a face detector instance.
-            options = builder
-                    .build();
-
-            // Gets a FirebaseVisionFaceDetector that detects faces in a supplied image.
-            // https://firebase.google.com/docs/reference/android/com/google/firebase/ml/vision/face/FirebaseVisionFaceDetector
-            FirebaseVisionFaceDetector faceDetector =
-                    FirebaseVision.getInstance().getVisionFaceDetector(
-                            // The options for the face detector.
-                            options
-                    );
-
-            // Detects human faces from the supplied image.
-            faceDetector
-                    .detectInImage(
-                            image
-                    )
-                    .addOnSuccessListener(
-                            // A Task that asynchronously returns a List of detected FirebaseVisionFaces.
-                            (List<FirebaseVisionFace> faces) -> {
-                                //Log.i(getLogTag(), "addOnSuccessListener " + faces);
-
-                                JSArray facesArray = new JSArray();
-
-                                // Represents a face detected by FirebaseVisionFaceDetector.
-                                // https://firebase.google.com/docs/reference/android/com/google/firebase/ml/vision/face/FirebaseVisionFace
-                                for (FirebaseVisionFace face : faces) {
-                                    JSObject faceObject = new JSObject();
-
-                                    {
-                                        // Returns the axis-aligned bounding rectangle of the detected face.
-                                        Rect bounds = face.getBoundingBox();
-
-                                        JSObject boundsObject = new JSObject();
-
-                                        // The X coordinate of the left side of the rectangle
-                                        boundsObject.put("x", bounds.left);
-                                        // The Y coordinate of the top of the rectangle
-                                        boundsObject.put("y", bounds.top);
-                                        // The rectangle's width.
-                                        boundsObject.put("width", bounds.width());
-                                        // The rectangle's height.
-                                        boundsObject.put("height", bounds.height());
-
-                                        boundsObject.put("left", bounds.left);
-                                        boundsObject.put("top", bounds.top);
-                                        boundsObject.put("right", bounds.right);
-                                        boundsObject.put("bottom", bounds.bottom);
-
-                                        faceObject.put("bounds", boundsObject);
-                                    }
-
-                                    {
-                                        JSArray landmarksArray = new JSArray();
-
-                                        List<Integer> landmarkTypes = Arrays.asList(
-                                                // The midpoint between the subject's left mouth corner and the outer corner of the subject's left eye.
-                                                FirebaseVisionFaceLandmark.LEFT_CHEEK,
-                                                // The midpoint between the subject's right mouth corner and the outer corner of the subject's right eye.
-                                                FirebaseVisionFaceLandmark.RIGHT_CHEEK,
-
-                                                // The midpoint of the subject's left ear tip and left ear lobe.
-                                                FirebaseVisionFaceLandmark.LEFT_EAR,
-                                                // The midpoint of the subject's right ear tip and right ear lobe.
-                                                FirebaseVisionFaceLandmark.RIGHT_EAR,
-
-                                                // The center of the subject's left eye cavity.
-                                                FirebaseVisionFaceLandmark.LEFT_EYE,
-                                                // The midpoint of the subject's right ear tip and right ear lobe.
-                                                FirebaseVisionFaceLandmark.RIGHT_EYE,
-
-                                                // The midpoint between the subject's nostrils where the nose meets the face.
-                                                FirebaseVisionFaceLandmark.NOSE_BASE,
-
-                                                // The center of the subject's bottom lip.
-                                                FirebaseVisionFaceLandmark.MOUTH_BOTTOM,
-                                                // The subject's left mouth corner where the lips meet.
-                                                FirebaseVisionFaceLandmark.MOUTH_LEFT,
-                                                // The subject's right mouth corner where the lips meet.
-                                                FirebaseVisionFaceLandmark.MOUTH_RIGHT
-                                        );
-
-                                        for (@LandmarkType int landmarkType : landmarkTypes) {
-                                            JSObject landmarkObject = landmarkHelper.get(face, landmarkType);
-
-                                            if (landmarkObject.length() > 0) {
-                                                landmarksArray.put(landmarkObject);
-                                            }
-                                        }
-
-                                        if (landmarksArray.length() > 0) {
-                                            faceObject.put("landmarks", landmarksArray);
-                                        }
-                                    }
-
-                                    {
-                                        JSArray contoursArray = new JSArray();
-
-                                        List<Integer> contourTypes = Arrays.asList(
-                                                // All points of a face contour.
-                                                FirebaseVisionFaceContour.ALL_POINTS,
-
-                                                // The outline of the subject's face.
-                                                FirebaseVisionFaceContour.FACE,
-
-                                                // The top outline of the subject's left eyebrow.
-                                                FirebaseVisionFaceContour.LEFT_EYEBROW_TOP,
-                                                // The bottom outline of the subject's left eyebrow.
-                                                FirebaseVisionFaceContour.LEFT_EYEBROW_BOTTOM,
-                                                // The top outline of the subject's right eyebrow.
-                                                FirebaseVisionFaceContour.RIGHT_EYEBROW_TOP,
-                                                // The bottom outline of the subject's right eyebrow.
-                                                FirebaseVisionFaceContour.RIGHT_EYEBROW_BOTTOM,
-
-                                                // The outline of the subject's left eye cavity.
-                                                FirebaseVisionFaceContour.LEFT_EYE,
-                                                // The outline of the subject's right eye cavity.
-                                                FirebaseVisionFaceContour.RIGHT_EYE,
-
-                                                // The top outline of the subject's upper lip.
-                                                FirebaseVisionFaceContour.UPPER_LIP_TOP,
-                                                // The bottom outline of the subject's upper lip.
-                                                FirebaseVisionFaceContour.UPPER_LIP_BOTTOM,
-                                                // The top outline of the subject's lower lip.
-                                                FirebaseVisionFaceContour.LOWER_LIP_TOP,
-                                                // The bottom outline of the subject's lower lip.
-                                                FirebaseVisionFaceContour.LOWER_LIP_BOTTOM,
-
-                                                // The outline of the subject's nose bridge.
-                                                FirebaseVisionFaceContour.NOSE_BRIDGE,
-                                                // The outline of the subject's nose bridge.
-                                                FirebaseVisionFaceContour.NOSE_BOTTOM
-                                        );
-
-                                        for (@ContourType int contourType : contourTypes) {
-                                            JSObject contourObject = contourHelper.get(face, contourType);
-
-                                            if (contourObject.length() > 0) {
-                                                contoursArray.put(contourObject);
-                                            }
-                                        }
-
-                                        if (contoursArray.length() > 0) {
-                                            faceObject.put("contours", contoursArray);
-                                        }
-                                    }
-
-                                    // Returns the rotation of the face about the vertical axis of the image.
-                                    faceObject.put("headEulerAngleY", face.getHeadEulerAngleY());
-                                    // Returns the rotation of the face about the axis pointing out of the image.
-                                    faceObject.put("headEulerAngleZ", face.getHeadEulerAngleZ());
-
-                                    if (face.getLeftEyeOpenProbability() != FirebaseVisionFace.UNCOMPUTED_PROBABILITY) {
-                                        // Returns a value between 0.0 and 1.0 giving a probability that the face's left eye is open.
-                                        faceObject.put("leftEyeOpenProbability", face.getLeftEyeOpenProbability());
-                                    }
-                                    if (face.getRightEyeOpenProbability() != FirebaseVisionFace.UNCOMPUTED_PROBABILITY) {
-                                        // Returns a value between 0.0 and 1.0 giving a probability that the face's right eye is open.
-                                        faceObject.put("rightEyeOpenProbability", face.getRightEyeOpenProbability());
-                                    }
-                                    if (face.getSmilingProbability() != FirebaseVisionFace.UNCOMPUTED_PROBABILITY) {
-                                        // Returns a value between 0.0 and 1.0 giving a probability that the face is smiling.
-                                        faceObject.put("smilingProbability", face.getSmilingProbability());
-                                    }
-
-                                    if (face.getTrackingId() != FirebaseVisionFace.INVALID_ID) {
-                                        // Returns the tracking ID if the tracking is enabled.
-                                        faceObject.put("trackingId", face.getTrackingId());
-                                    }
-
-                                    facesArray.put(faceObject);
-                                }
-
-                                JSObject data = new JSObject();
-                                data.put("faces", facesArray);
-
-                                call.success(data);
+            final FieldProjection projection = FieldProjection.fromJSONArray(call.getArray("fields", null));
+
+            FaceDetectorConfig config = projection.apply(
+                    FaceDetectorConfig.fromJSONObject(call.getObject("options", null))
+            );
+
+            final String resultFormat = resultFormat(call);
+
+            BatchDetection batch = new BatchDetection(
+                    batchId,
+                    getContext(),
+                    images,
+                    ImageDecodeOptions.fromJSONObject(call.getData()),
+                    bufferPool,
+                    bitmapPool,
+                    faceDetectorBackend,
+                    config,
+                    projection,
+                    // Bounds the decoded bitmaps held by the batch, the decode threads are bounded by the shared executor.
+                    Math.min(call.getInt("parallelism", BatchDetection.DEFAULT_PARALLELISM), BatchDetection.MAX_PARALLELISM),
+                    batchDecodeExecutor(),
+                    detectionExecutor,
+                    new BatchDetection.Listener() {
+                        @Override
+                        public void onImage(BatchDetection batch, int index, List<DetectedFace> faces) {
+                            JSObject data = new JSObject();
+                            data.put("batchId", batch.id);
+                            data.put("index", index);
+
+                            try {
+                                data.put("faces", FaceResults.toJSONArray(faces, projection, resultFormat));
+                            } catch (JSONException e) {
+                                data.put("error", e.getLocalizedMessage());
+                            }
+
+                            // Streams the result of every image as soon as it is available.
+                            notifyListeners("batchImageDetected", data);
+                        }
+
+                        @Override
+                        public void onImageError(BatchDetection batch, int index, Exception e) {
+                            JSObject data = new JSObject();
+                            data.put("batchId", batch.id);
+                            data.put("index", index);
+                            data.put("error", e.getLocalizedMessage());
+
+                            notifyListeners("batchImageDetected", data);
+                        }
+
+                        @Override
+                        public void onFinished(BatchDetection batch) {
+                            batches.remove(batch.id);
+
+                            int processed = batch.getSucceeded() + batch.getFailed();
+                            double durationMs = batch.getDurationMs();
+
+                            JSObject data = new JSObject();
+                            data.put("batchId", batch.id);
+                            data.put("count", batch.getCount());
+                            data.put("succeeded", batch.getSucceeded());
+                            data.put("failed", batch.getFailed());
+                            data.put("cancelled", batch.getCancelled());
+                            data.put("durationMs", durationMs);
+                            data.put("imagesPerSecond", durationMs > 0 ? processed * 1000 / durationMs : 0);
+                            data.put("averageDecodeMs", batch.getAverageDecodeMs());
+                            data.put("averageDetectMs", batch.getAverageDetectMs());
+
+                            call.success(data);
+                        }
+                    }
+            );
+
+            batches.put(batchId, batch);
+
+            try {
+                batch.start();
+            } catch (
+                    Exception e) {
+                // The batch never started, e.g. as its detector failed to load, so its id is free for a retry.
+                batches.remove(batchId, batch);
+
+                throw e;
+            }
+        } catch (
+                Exception e) {
+            call.error(e.getLocalizedMessage(), e);
+        }
+    }
+
+    @PluginMethod()
+    public void cancelBatch(final PluginCall call) {
+        String batchId = call.getString("batchId", null);
+
+        BatchDetection batch = batchId != null ? batches.get(batchId) : null;
+        if (batch == null) {
+            call.error("Unknown batch " + batchId);
+            return;
+        }
+
+        // The detectInImages call resolves with its summary once the images in flight completed.
+        batch.cancel();
+
+        call.success();
+    }
+
+    @PluginMethod()
+    public void warmUp(final PluginCall call) {
+        try {
+            FaceDetectorConfig config = FaceDetectorConfig.fromJSONObject(call.getObject("options", null));
+
+            final FaceDetectorBackend.Detector<FirebaseVisionImage> faceDetector = faceDetectorBackend.acquire(config);
+
+            // Runs a detection on a blank image, which forces the detector to load its models.
+            try {
+                faceDetector.detect(
+                        FirebaseVisionImage.fromBitmap(
+                                Bitmap.createBitmap(WARM_UP_IMAGE_SIZE, WARM_UP_IMAGE_SIZE, Bitmap.Config.ARGB_8888)
+                        ),
+                        ImageTransform.IDENTITY,
+                        FieldProjection.ALL,
+                        detectionExecutor,
+                        new FaceDetectorBackend.Callback() {
+                            @Override
+                            public void onSuccess(List<DetectedFace> faces) {
+                                faceDetector.release();
+
+                                call.success();
                             }
-                    )
-                    .addOnFailureListener(
-                            (Exception e) -> {
-                                //Toast.makeText(getContext(), "Unable to detect in image: " + e, Toast.LENGTH_SHORT).show();
 
-                                //Log.i(getLogTag(), "Face detection failed " + e);
+                            @Override
+                            public void onFailure(Exception e) {
+                                faceDetector.release();
 
                                 call.error(e.getLocalizedMessage(), e);
                             }
-                    );
+                        }
+                );
+            } catch (Exception e) {
+                faceDetector.release();
 
-            // Closes this FirebaseVisionFaceDetector and releases its model resources.
-            faceDetector.close();
+                throw e;
+            }
         } catch (
                 Exception e) {
             call.error(e.getLocalizedMessage(), e);
         }
     }
+
+    @PluginMethod()
+    public void releaseDetectors(final PluginCall call) {
+        // Closes all cached detectors. Detectors with pending detections are closed as soon as these complete.
+        faceDetectorCache.clear();
+        visionDetectors.clear();
+
+        call.success();
+    }
+
+    @PluginMethod()
+    public void startFaceStream(final PluginCall call) {
+        if (!hasRequiredPermissions()) {
+            // Continues in handleRequestPermissionsResult once the user answered.
+            saveCall(call);
+            pluginRequestAllPermissions();
+            return;
+        }
+
+        try {
+            // Smooths and diffs the faces of consecutive frames.
+            TrackingOptions trackingOptions = TrackingOptions.fromJSONObject(call.getData());
+            final FaceTracker tracker = trackingOptions != null ? new FaceTracker(trackingOptions) : null;
+
+            FieldProjection fields = FieldProjection.fromJSONArray(call.getArray("fields", null));
+            final FieldProjection projection = tracker != null ? fields.withTrackingId() : fields;
+
+            FaceDetectorConfig options = projection.apply(
+                    FaceDetectorConfig.fromJSONObject(call.getObject("options", null))
+            );
+            final FaceDetectorConfig config = tracker != null ? options.withTracking() : options;
+
+            // Degrades the detector settings while the frames are slower than the latency budget, the resolution of the frames is fixed by the camera.
+            AdaptiveOptions adaptiveOptions = AdaptiveOptions.fromJSONObject(call.getData());
+            final AdaptiveGovernor governor = adaptiveOptions != null ? new AdaptiveGovernor(adaptiveOptions, false) : null;
+
+            final int lensFacing = "back".equals(call.getString("lensFacing", "front"))
+                    ? CameraSelector.LENS_FACING_BACK
+                    : CameraSelector.LENS_FACING_FRONT;
+
+            final Size targetResolution = new Size(
+                    call.getInt("width", DEFAULT_STREAM_WIDTH),
+                    call.getInt("height", DEFAULT_STREAM_HEIGHT)
+            );
+
+            final String resultFormat = resultFormat(call);
+
+            final Executor mainExecutor = ContextCompat.getMainExecutor(getContext());
+
+            // The camera is bound to the lifecycle of the activity, which has to happen on the main thread.
+            final ListenableFuture<ProcessCameraProvider> cameraProviderFuture = ProcessCameraProvider.getInstance(getContext());
+            cameraProviderFuture.addListener(
+                    () -> {
+                        try {
+                            stopStream();
+
+                            cameraProvider = cameraProviderFuture.get();
+
+                            streamProjection = projection;
+                            streamResultFormat = resultFormat;
+                            streamTracker = tracker;
+
+                            if (streamExecutor == null) {
+                                streamExecutor = Executors.newSingleThreadExecutor();
+                            }
+
+                            faceStreamAnalyzer = new FaceStreamAnalyzer(
+                                    faceDetectorBackend,
+                                    config,
+                                    governor,
+                                    projection,
+                                    streamExecutor,
+                                    faceStreamListener
+                            );
+
+                            // Frames are delivered as YUV_420_888, and only the latest frame is kept while the detector is busy.
+                            imageAnalysis = new ImageAnalysis.Builder()
+                                    .setTargetResolution(targetResolution)
+                                    .setBackpressureStrategy(ImageAnalysis.STRATEGY_KEEP_ONLY_LATEST)
+                                    .build();
+                            imageAnalysis.setAnalyzer(streamExecutor, faceStreamAnalyzer);
+
+                            cameraProvider.bindToLifecycle(
+                                    getActivity(),
+                                    new CameraSelector.Builder()
+                                            .requireLensFacing(lensFacing)
+                                            .build(),
+                                    imageAnalysis
+                            );
+
+                            // Keeps the call alive for the lifetime of the stream, results are pushed through "faceDetected" events.
+                            call.save();
+                            streamCall = call;
+
+                            call.success();
+                        } catch (Exception e) {
+                            stopStream();
+
+                            call.error(e.getLocalizedMessage(), e);
+                        }
+                    },
+                    mainExecutor
+            );
+        } catch (
+                Exception e) {
+            call.error(e.getLocalizedMessage(), e);
+        }
+    }
+
+    @PluginMethod()
+    public void stopFaceStream(final PluginCall call) {
+        ContextCompat.getMainExecutor(getContext()).execute(
+                () -> {
+                    stopStream();
+
+                    call.success();
+                }
+        );
+    }
+
+    private final FaceStreamAnalyzer.Listener faceStreamListener = new FaceStreamAnalyzer.Listener() {
+        @Override
+        public void onFaces(List<DetectedFace> faces, int width, int height, int rotationDegrees, AdaptiveGovernor.Settings settings) {
+            try {
+                FaceTracker tracker = streamTracker;
+
+                JSObject data = new JSObject();
+
+                JSONArray facesArray = FaceResults.put(data, faces, streamProjection, streamResultFormat, tracker, SystemClock.elapsedRealtimeNanos());
+
+                // In delta mode, frames without changes are not sent at all.
+                if (tracker != null && tracker.options.delta && facesArray.length() == 0 && data.getJSONArray("removed").length() == 0) {
+                    return;
+                }
+
+                // The size of the up-right frame the coordinates refer to.
+                data.put("width", width);
+                data.put("height", height);
+                data.put("rotation", rotationDegrees);
+
+                if (settings != null) {
+                    data.put("adaptive", settings.toJSONObject());
+                }
+
+                notifyListeners("faceDetected", data);
+            } catch (JSONException e) {
+                onError(e);
+            }
+        }
+
+        @Override
+        public void onError(Exception e) {
+            JSObject data = new JSObject();
+            data.put("message", e.getLocalizedMessage());
+
+            notifyListeners("faceDetectionError", data);
+        }
+    };
+
+    // Unbinds the camera and releases the stream call. Must be called on the main thread.
+    private void stopStream() {
+        if (faceStreamAnalyzer != null) {
+            faceStreamAnalyzer.stop();
+            faceStreamAnalyzer = null;
+        }
+
+        if (imageAnalysis != null) {
+            imageAnalysis.clearAnalyzer();
+
+            if (cameraProvider != null) {
+                cameraProvider.unbind(imageAnalysis);
+            }
+
+            imageAnalysis = null;
+        }
+
+        if (streamCall != null) {
+            streamCall.release(getBridge());
+            streamCall = null;
+        }
+    }
+
+    private static String resultFormat(PluginCall call) {
+        String resultFormat = call.getString("resultFormat", FaceResults.FORMAT_JSON);
+
+        FaceResults.checkFormat(resultFormat);
+
+        return resultFormat;
+    }
+
+    @Override
+    protected void handleRequestPermissionsResult(int requestCode, String[] permissions, int[] grantResults) {
+        super.handleRequestPermissionsResult(requestCode, permissions, grantResults);
+
+        PluginCall savedCall = getSavedCall();
+        if (savedCall == null) {
+            return;
+        }
+
+        freeSavedCall();
+
+        for (int result : grantResults) {
+            if (result == PackageManager.PERMISSION_DENIED) {
+                savedCall.error("Camera permission denied");
+                return;
+            }
+        }
+
+        if (requestCode == REQUEST_CAMERA_PERMISSION) {
+            startFaceStream(savedCall);
+        }
+    }
+
+    @Override
+    protected void handleOnDestroy() {
+        for (BatchDetection batch : batches.values()) {
+            batch.cancel();
+        }
+
+        frameScheduler.clear();
+        detectionExecutor.shutdown();
+
+        synchronized (this) {
+            if (batchDecodeExecutor != null) {
+                batchDecodeExecutor.shutdown();
+                batchDecodeExecutor = null;
+            }
+        }
+
+        stopStream();
+
+        if (streamExecutor != null) {
+            streamExecutor.shutdown();
+            streamExecutor = null;
+        }
+
+        faceDetectorCache.clear();
+        visionDetectors.clear();
+        detectorEvictionExecutor.shutdown();
+
+        cacheExecutor.shutdown();
+
+        getContext().unregisterComponentCallbacks(memoryCallbacks);
+
+        // Bitmaps still in use are recycled once handed back, as they exceed the cap.
+        bitmapPool.setMaxBytes(0);
+        bufferPool.setMaxBytes(0);
+
+        super.handleOnDestroy();
+    }
 }
@@ -0,0 +1,218 @@
+package com.ionicframework.capacitor;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Limits the number of frames processed concurrently and decides what happens to frames arriving while the limit is reached.
+// Frames wait in a queue until a slot becomes free; depending on the policy the queue grows, or the oldest or newest frame is dropped.
+class FrameScheduler<F> {
+    enum Policy {
+        // Keeps every frame, the queue grows without bound.
+        QUEUE,
+        // Drops the longest waiting frame in favour of the new one.
+        DROP_OLDEST,
+        // Drops the new frame if the queue is full.
+        DROP_NEWEST;
+
+        static Policy fromString(String policy) {
+            if (policy == null) {
+                return QUEUE;
+            }
+
+            switch (policy) {
+                case "queue":
+                    return QUEUE;
+                case "dropOldest":
+                    return DROP_OLDEST;
+                case "dropNewest":
+                    return DROP_NEWEST;
+                default:
+                    throw new IllegalArgumentException(String.format(Locale.ROOT, "Unknown scheduling policy \"%s\"", policy));
+            }
+        }
+    }
+
+    interface Worker<F> {
+        // Processes the frame and runs done once finished, from any thread.
+        void process(F frame, long queueWaitNanos, Runnable done);
+    }
+
+    interface DropHandler<F> {
+        void onDropped(F frame);
+    }
+
+    static final int DEFAULT_MAX_IN_FLIGHT = 2;
+    static final int DEFAULT_MAX_QUEUED = 1;
+
+    private static final class Pending<F> {
+        final F frame;
+        final long enqueuedAt;
+
+        Pending(F frame, long enqueuedAt) {
+            this.frame = frame;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+
+    private final Executor executor;
+    private final Worker<F> worker;
+    private final DropHandler<F> dropHandler;
+
+    private final ArrayDeque<Pending<F>> queue = new ArrayDeque<>();
+
+    private int maxInFlight = DEFAULT_MAX_IN_FLIGHT;
+    private int maxQueued = DEFAULT_MAX_QUEUED;
+    private Policy policy = Policy.QUEUE;
+
+    private int inFlight;
+
+    FrameScheduler(Executor executor, Worker<F> worker, DropHandler<F> dropHandler) {
+        this.executor = executor;
+        this.worker = worker;
+        this.dropHandler = dropHandler;
+    }
+
+    void configure(int maxInFlight, int maxQueued, Policy policy) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be at least 1");
+        }
+        if (maxQueued < 0) {
+            throw new IllegalArgumentException("maxQueued must not be negative");
+        }
+
+        synchronized (this) {
+            this.maxInFlight = maxInFlight;
+            this.maxQueued = maxQueued;
+            this.policy = policy;
+        }
+
+        // A higher limit may allow waiting frames to start right away.
+        drain();
+    }
+
+    synchronized int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    synchronized int getMaxQueued() {
+        return maxQueued;
+    }
+
+    synchronized Policy getPolicy() {
+        return policy;
+    }
+
+    synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    synchronized int getQueued() {
+        return queue.size();
+    }
+
+    void submit(F frame) {
+        Pending<F> pending = new Pending<>(frame, System.nanoTime());
+        Pending<F> next = null;
+        F dropped = null;
+
+        synchronized (this) {
+            if (inFlight < maxInFlight && queue.isEmpty()) {
+                inFlight++;
+                next = pending;
+            } else if (policy == Policy.QUEUE || queue.size() < maxQueued) {
+                queue.addLast(pending);
+            } else if (policy == Policy.DROP_OLDEST && maxQueued > 0) {
+                dropped = queue.pollFirst().frame;
+                queue.addLast(pending);
+            } else {
+                dropped = frame;
+            }
+        }
+
+        if (dropped != null) {
+            dropHandler.onDropped(dropped);
+        }
+        if (next != null) {
+            dispatch(next);
+        }
+    }
+
+    // Drops all waiting frames, e.g. when the plugin is destroyed.
+    void clear() {
+        ArrayDeque<Pending<F>> dropped;
+
+        synchronized (this) {
+            dropped = new ArrayDeque<>(queue);
+            queue.clear();
+        }
+
+        for (Pending<F> pending : dropped) {
+            dropHandler.onDropped(pending.frame);
+        }
+    }
+
+    // Removes a waiting frame, e.g. when its call was cancelled. Returns false if the frame is not waiting, as it is already being processed.
+    synchronized boolean remove(F frame) {
+        Iterator<Pending<F>> iterator = queue.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().frame == frame) {
+                iterator.remove();
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void dispatch(final Pending<F> pending) {
+        final AtomicBoolean finished = new AtomicBoolean();
+
+        final Runnable done = () -> {
+            // Tolerates workers reporting completion more than once.
+            if (finished.compareAndSet(false, true)) {
+                complete();
+            }
+        };
+
+        executor.execute(
+                () -> {
+                    try {
+                        worker.process(pending.frame, System.nanoTime() - pending.enqueuedAt, done);
+                    } catch (RuntimeException e) {
+                        done.run();
+
+                        throw e;
+                    }
+                }
+        );
+    }
+
+    private void complete() {
+        synchronized (this) {
+            inFlight--;
+        }
+
+        drain();
+    }
+
+    // Starts waiting frames as long as slots are free.
+    private void drain() {
+        while (true) {
+            Pending<F> next;
+
+            synchronized (this) {
+                if (inFlight >= maxInFlight || queue.isEmpty()) {
+                    return;
+                }
+
+                inFlight++;
+                next = queue.pollFirst();
+            }
+
+            dispatch(next);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.ionicframework.capacitor;
+
+import org.json.JSONObject;
+
+import java.util.Locale;
+
+// Options controlling how an image is decoded before detection.
+// Downscaling and cropping happen while decoding, so the full resolution image never has to fit into memory.
+// The image is subsampled by a power of two while decoding, and the sampled image is scaled down to the exact maximum dimension afterwards.
+final class ImageDecodeOptions {
+    static final String ARGB_8888 = "ARGB_8888";
+    static final String RGB_565 = "RGB_565";
+
+    static final ImageDecodeOptions DEFAULT = new ImageDecodeOptions(0, null, ARGB_8888);
+
+    // The region of the original image to detect in.
+    static final class Region {
+        final int left;
+        final int top;
+        final int width;
+        final int height;
+
+        Region(int left, int top, int width, int height) {
+            this.left = left;
+            this.top = top;
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Region)) {
+                return false;
+            }
+
+            Region that = (Region) o;
+
+            return left == that.left && top == that.top && width == that.width && height == that.height;
+        }
+
+        @Override
+        public int hashCode() {
+            return ((left * 31 + top) * 31 + width) * 31 + height;
+        }
+    }
+
+    // The maximum width or height of the decoded image, or 0 to decode at full resolution.
+    final int maxDimension;
+
+    // The region of interest, or null for the whole image.
+    final Region roi;
+
+    // The bitmap configuration to decode into, see android.graphics.Bitmap.Config.
+    final String preferredConfig;
+
+    ImageDecodeOptions(int maxDimension, Region roi, String preferredConfig) {
+        this.maxDimension = maxDimension;
+        this.roi = roi;
+        this.preferredConfig = preferredConfig;
+    }
+
+    // Parses the decoding options passed next to the image.
+    static ImageDecodeOptions fromJSONObject(JSONObject object) {
+        if (object == null) {
+            return DEFAULT;
+        }
+
+        int maxDimension = object.optInt("maxDimension", DEFAULT.maxDimension);
+        if (maxDimension < 0) {
+            throw new IllegalArgumentException("maxDimension must not be negative");
+        }
+
+        Region roi = null;
+
+        JSONObject roiObject = object.optJSONObject("roi");
+        if (roiObject != null) {
+            roi = new Region(
+                    roiObject.optInt("x", roiObject.optInt("left", 0)),
+                    roiObject.optInt("y", roiObject.optInt("top", 0)),
+                    roiObject.optInt("width", 0),
+                    roiObject.optInt("height", 0)
+            );
+
+            if (roi.width <= 0 || roi.height <= 0) {
+                throw new IllegalArgumentException("roi must have a positive width and height");
+            }
+        }
+
+        String preferredConfig = object.optString("preferredConfig", DEFAULT.preferredConfig);
+        if (!ARGB_8888.equals(preferredConfig) && !RGB_565.equals(preferredConfig)) {
+            throw new IllegalArgumentException(String.format(Locale.ROOT, "Unsupported preferredConfig \"%s\"", preferredConfig));
+        }
+
+        return new ImageDecodeOptions(maxDimension, roi, preferredConfig);
+    }
+
+    // Returns these options with another maximum dimension.
+    ImageDecodeOptions withMaxDimension(int maxDimension) {
+        if (maxDimension == this.maxDimension) {
+            return this;
+        }
+
+        return new ImageDecodeOptions(maxDimension, roi, preferredConfig);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                Locale.ROOT,
+                "maxDimension=%d,roi=%s,preferredConfig=%s",
+                maxDimension,
+                roi != null ? roi.left + "," + roi.top + "," + roi.width + "," + roi.height : "none",
+                preferredConfig
+        );
+    }
+
+    // Returns the largest power of two sample size which keeps the decoded image at least maxDimension pixels wide or high.
+    static int sampleSize(int width, int height, int maxDimension) {
+        int sampleSize = 1;
+
+        if (maxDimension > 0) {
+            int dimension = Math.max(width, height);
+
+            while (dimension / (sampleSize * 2) >= maxDimension) {
+                sampleSize *= 2;
+            }
+        }
+
+        return sampleSize;
+    }
+
+    // The factor scaling a sampled image down to maxDimension, or 1 if it already fits.
+    // The power of two sample size leaves the sampled image up to twice as large as maxDimension.
+    static float scale(int width, int height, int maxDimension) {
+        int dimension = Math.max(width, height);
+
+        if (maxDimension <= 0 || dimension <= maxDimension) {
+            return 1;
+        }
+
+        return (float) maxDimension / dimension;
+    }
+
+    // A width or height multiplied by the scale, never rounded down to nothing.
+    static int scaled(int size, float scale) {
+        return Math.max(1, Math.round(size * scale));
+    }
+}
@@ -0,0 +1,132 @@
+package com.ionicframework.capacitor;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.database.Cursor;
+import android.graphics.Bitmap;
+import android.net.Uri;
+import android.provider.DocumentsContract;
+import android.provider.OpenableColumns;
+
+import com.getcapacitor.Bridge;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+
+// Resolves the images passed from JavaScript, either Base64 encoded content, a file:// or content:// URI, an absolute file path or a Capacitor web path.
+// Files and content URIs are streamed into the decoder, so their bytes never pass the bridge.
+final class ImageSource {
+    private ImageSource() {
+    }
+
+    static boolean isUri(String image) {
+        return image.startsWith("file://") || image.startsWith("content://") || isWebPath(image);
+    }
+
+    // Paths returned by Capacitor.convertFileSrc(), e.g. http://localhost/_capacitor_file_/data/user/0/...
+    private static boolean isWebPath(String path) {
+        return path.contains(Bridge.CAPACITOR_FILE_START) && (path.startsWith("http://") || path.startsWith("https://"));
+    }
+
+    static Uri toUri(String path) {
+        if (isWebPath(path)) {
+            // The web path carries the URL encoded absolute path of the file.
+            String filePath = Uri.decode(path.substring(path.indexOf(Bridge.CAPACITOR_FILE_START) + Bridge.CAPACITOR_FILE_START.length()));
+
+            return Uri.fromFile(new File(filePath));
+        }
+
+        if (path.startsWith("/")) {
+            return Uri.fromFile(new File(path));
+        }
+
+        return Uri.parse(path);
+    }
+
+    // Decodes the image at the resolution needed for detection.
+    static BitmapDecoder.DecodedImage decode(
+            Context context,
+            String image,
+            ImageDecodeOptions decodeOptions,
+            BucketedPool<byte[]> bufferPool,
+            BucketedPool<Bitmap> bitmapPool
+    ) throws IOException {
+        if (isUri(image)) {
+            return decode(context, toUri(image), decodeOptions, bitmapPool);
+        }
+
+        byte[] buffer = acquireBuffer(bufferPool, Base64Codec.maxDecodedLength(image));
+        try {
+            int length = Base64Codec.decode(image, buffer);
+
+            return BitmapDecoder.decode(buffer, 0, length, decodeOptions, bitmapPool);
+        } finally {
+            // The decoded bitmap does not refer to the encoded bytes.
+            bufferPool.release(buffer);
+        }
+    }
+
+    // Returns a pooled buffer of at least the given length, or a new one.
+    static byte[] acquireBuffer(BucketedPool<byte[]> bufferPool, int minLength) {
+        byte[] buffer = bufferPool.acquire(minLength);
+
+        return buffer != null ? buffer : new byte[minLength];
+    }
+
+    // Decodes the image at the resolution needed for detection, turned up-right according to its EXIF orientation.
+    static BitmapDecoder.DecodedImage decode(final Context context, final Uri uri, ImageDecodeOptions decodeOptions, BucketedPool<Bitmap> bitmapPool) throws IOException {
+        return BitmapDecoder.decode(() -> open(context, uri), decodeOptions, bitmapPool);
+    }
+
+    // Describes the identity of the file behind the URI for the result cache, or returns null if its modification time is unknown and a changed file could not be told apart.
+    static String identity(Context context, Uri uri) {
+        if (ContentResolver.SCHEME_FILE.equals(uri.getScheme())) {
+            File file = new File(uri.getPath());
+            if (!file.isFile()) {
+                return null;
+            }
+
+            return FaceResultCache.fileId(uri.toString(), file.length(), file.lastModified());
+        }
+
+        // Document providers report the modification time, other content providers usually do not.
+        // https://developer.android.com/reference/android/provider/DocumentsContract.Document#COLUMN_LAST_MODIFIED
+        try {
+            Cursor cursor = context.getContentResolver().query(
+                    uri,
+                    new String[]{OpenableColumns.SIZE, DocumentsContract.Document.COLUMN_LAST_MODIFIED},
+                    null,
+                    null,
+                    null
+            );
+            if (cursor == null) {
+                return null;
+            }
+
+            try {
+                if (!cursor.moveToFirst() || cursor.isNull(0) || cursor.isNull(1)) {
+                    return null;
+                }
+
+                return FaceResultCache.fileId(uri.toString(), cursor.getLong(0), cursor.getLong(1));
+            } finally {
+                cursor.close();
+            }
+        } catch (Exception e) {
+            // The provider does not support the columns.
+            return null;
+        }
+    }
+
+    static InputStream open(Context context, Uri uri) throws IOException {
+        // Opens file:// as well as content:// URIs.
+        InputStream inputStream = context.getContentResolver().openInputStream(uri);
+        if (inputStream == null) {
+            throw new FileNotFoundException("Unable to open " + uri);
+        }
+
+        return inputStream;
+    }
+}
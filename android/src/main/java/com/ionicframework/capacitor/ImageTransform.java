@@ -0,0 +1,46 @@
+package com.ionicframework.capacitor;
+
+// Maps coordinates of a decoded (downscaled and/or cropped) image back to the coordinates of the original image.
+final class ImageTransform {
+    static final ImageTransform IDENTITY = new ImageTransform(1, 1, 0, 0);
+
+    // The number of original pixels per decoded pixel.
+    final float scaleX;
+    final float scaleY;
+
+    // The position of the decoded region within the original image.
+    final int offsetX;
+    final int offsetY;
+
+    ImageTransform(float scaleX, float scaleY, int offsetX, int offsetY) {
+        this.scaleX = scaleX;
+        this.scaleY = scaleY;
+        this.offsetX = offsetX;
+        this.offsetY = offsetY;
+    }
+
+    boolean isIdentity() {
+        return scaleX == 1 && scaleY == 1 && offsetX == 0 && offsetY == 0;
+    }
+
+    float mapX(float x) {
+        return x * scaleX + offsetX;
+    }
+
+    float mapY(float y) {
+        return y * scaleY + offsetY;
+    }
+
+    int mapX(int x) {
+        return Math.round(mapX((float) x));
+    }
+
+    int mapY(int y) {
+        return Math.round(mapY((float) y));
+    }
+
+    // Depth is scaled along with the horizontal axis.
+    float mapZ(float z) {
+        return z * scaleX;
+    }
+}
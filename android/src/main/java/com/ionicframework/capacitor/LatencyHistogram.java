@@ -0,0 +1,105 @@
+package com.ionicframework.capacitor;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// A lock-free histogram of non-negative values, e.g. durations in nanoseconds or sizes in bytes.
+// Values are counted in LogLinearBuckets: every power of two is split into SUB_BUCKETS buckets of equal width, so percentiles are off by at most 1/SUB_BUCKETS of the value.
+// Recording is a few atomic increments, it never allocates or blocks, so it can be called from any thread on the detection path.
+final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    // Values below SUB_BUCKETS have a bucket each, every further power of two up to 2^62 has SUB_BUCKETS buckets.
+    private static final int BUCKETS = (Long.SIZE - 1 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+
+        counts.incrementAndGet(bucket(value));
+
+        count.incrementAndGet();
+        sum.addAndGet(value);
+
+        long currentMax;
+        while (value > (currentMax = max.get())) {
+            if (max.compareAndSet(currentMax, value)) {
+                break;
+            }
+        }
+    }
+
+    long getCount() {
+        return count.get();
+    }
+
+    long getMax() {
+        return max.get();
+    }
+
+    double getMean() {
+        long n = count.get();
+
+        return n > 0 ? (double) sum.get() / n : 0;
+    }
+
+    // Returns the value below which the given percentage (0 to 100) of the recorded values fall, or 0 if nothing was recorded.
+    // Concurrent recordings may or may not be included.
+    long getPercentile(double percentile) {
+        long n = 0;
+
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            n += snapshot[i];
+        }
+
+        if (n == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * n));
+
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+
+            if (seen >= rank) {
+                // The middle of the bucket, but never more than the largest recorded value.
+                return Math.min(lowerBound(i) + (width(i) - 1) / 2, max.get());
+            }
+        }
+
+        return max.get();
+    }
+
+    void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+
+        count.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    static int bucket(long value) {
+        return LogLinearBuckets.bucket(value, SUB_BUCKET_BITS);
+    }
+
+    static long lowerBound(int bucket) {
+        return LogLinearBuckets.lowerBound(bucket, SUB_BUCKET_BITS);
+    }
+
+    static long width(int bucket) {
+        return LogLinearBuckets.width(bucket, SUB_BUCKET_BITS);
+    }
+}
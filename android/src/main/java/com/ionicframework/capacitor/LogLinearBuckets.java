@@ -0,0 +1,50 @@
+package com.ionicframework.capacitor;
+
+// Log-linear buckets of non-negative values, used by LatencyHistogram for durations and by BucketedPool for sizes.
+// Values below 2^subBucketBits have a bucket each, every further power of two is split into 2^subBucketBits buckets of equal width.
+final class LogLinearBuckets {
+    private LogLinearBuckets() {
+    }
+
+    // The bucket the value falls into, negative values fall into the bucket of 0.
+    static int bucket(long value, int subBucketBits) {
+        int subBuckets = 1 << subBucketBits;
+
+        if (value < subBuckets) {
+            return (int) Math.max(value, 0);
+        }
+
+        // The position of the highest bit, and the subBucketBits bits below it.
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - subBucketBits)) & (subBuckets - 1);
+
+        return (exponent - subBucketBits + 1) * subBuckets + subBucket;
+    }
+
+    // The smallest value of the bucket.
+    static long lowerBound(int bucket, int subBucketBits) {
+        int subBuckets = 1 << subBucketBits;
+
+        if (bucket < subBuckets) {
+            return bucket;
+        }
+
+        int exponent = bucket / subBuckets + subBucketBits - 1;
+        int subBucket = bucket % subBuckets;
+
+        return (long) (subBuckets + subBucket) << (exponent - subBucketBits);
+    }
+
+    // The number of values in the bucket.
+    static long width(int bucket, int subBucketBits) {
+        int subBuckets = 1 << subBucketBits;
+
+        if (bucket < subBuckets) {
+            return 1;
+        }
+
+        int exponent = bucket / subBuckets + subBucketBits - 1;
+
+        return 1L << (exponent - subBucketBits);
+    }
+}
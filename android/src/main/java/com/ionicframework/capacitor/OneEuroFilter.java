@@ -0,0 +1,61 @@
+package com.ionicframework.capacitor;
+
+// Smooths a noisy signal with an adaptive low-pass filter: slow movements are filtered strongly to remove jitter, fast movements lightly to keep the lag low.
+// http://cristal.univ-lille.fr/~casiez/1euro/
+final class OneEuroFilter {
+    // The cutoff frequency in Hz at zero speed, lower values remove more jitter.
+    private final double minCutoff;
+    // How much the cutoff frequency rises with the speed, higher values reduce the lag.
+    private final double beta;
+    // The cutoff frequency in Hz of the filtered speed.
+    private final double derivateCutoff;
+
+    private boolean initialized;
+    private double value;
+    private double derivate;
+    private long timestampNanos;
+
+    OneEuroFilter(double minCutoff, double beta, double derivateCutoff) {
+        this.minCutoff = minCutoff;
+        this.beta = beta;
+        this.derivateCutoff = derivateCutoff;
+    }
+
+    double filter(double rawValue, long timestampNanos) {
+        if (!initialized) {
+            initialized = true;
+            value = rawValue;
+            derivate = 0;
+            this.timestampNanos = timestampNanos;
+
+            return value;
+        }
+
+        double elapsed = (timestampNanos - this.timestampNanos) / 1e9;
+
+        // A value older than the last one, e.g. of a frame which completed out of order.
+        if (elapsed <= 0) {
+            return value;
+        }
+
+        derivate = lowPass(derivate, (rawValue - value) / elapsed, alpha(derivateCutoff, elapsed));
+
+        double cutoff = minCutoff + beta * Math.abs(derivate);
+        value = lowPass(value, rawValue, alpha(cutoff, elapsed));
+
+        this.timestampNanos = timestampNanos;
+
+        return value;
+    }
+
+    private static double lowPass(double previous, double rawValue, double alpha) {
+        return previous + alpha * (rawValue - previous);
+    }
+
+    // The smoothing factor of an exponential low-pass filter with the given cutoff frequency.
+    private static double alpha(double cutoff, double elapsed) {
+        double tau = 1 / (2 * Math.PI * cutoff);
+
+        return 1 / (1 + tau / elapsed);
+    }
+}
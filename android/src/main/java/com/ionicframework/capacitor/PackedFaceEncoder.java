@@ -0,0 +1,144 @@
+package com.ionicframework.capacitor;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.List;
+
+// Encodes the points of a face into one packed Float32 array instead of an object per point.
+//
+// Every face carries its landmark and contour points as consecutive little-endian x, y, z floats (z is NaN if unknown), Base64 encoded under "points".
+// "landmarkIndex" lists [type, point] pairs and "contourIndex" lists [type, first point, point count] triples into that array.
+// The ALL_POINTS contour is not repeated next to other contours, as it only concatenates them.
+// JavaScript reads the points with new Float32Array(bytes.buffer) without building an object per point.
+final class PackedFaceEncoder {
+    static final int FLOATS_PER_POINT = 3;
+    static final int BYTES_PER_FLOAT = 4;
+
+    // https://firebase.google.com/docs/reference/android/com/google/firebase/ml/vision/face/FirebaseVisionFaceContour#ALL_POINTS
+    static final int ALL_POINTS = 1;
+
+    private PackedFaceEncoder() {
+    }
+
+    static JSONArray toJSONArray(List<DetectedFace> faces) throws JSONException {
+        return toJSONArray(faces, FieldProjection.ALL);
+    }
+
+    static JSONArray toJSONArray(List<DetectedFace> faces, FieldProjection projection) throws JSONException {
+        JSONArray facesArray = new JSONArray();
+
+        for (DetectedFace face : faces) {
+            facesArray.put(toJSONObject(face, projection));
+        }
+
+        return facesArray;
+    }
+
+    static JSONObject toJSONObject(DetectedFace face) throws JSONException {
+        return toJSONObject(face, FieldProjection.ALL);
+    }
+
+    static JSONObject toJSONObject(DetectedFace face, FieldProjection projection) throws JSONException {
+        JSONObject faceObject = new JSONObject();
+
+        FaceSerializer.putBounds(faceObject, face, projection);
+
+        boolean skipAllPoints = hasIndividualContours(face, projection);
+
+        int pointCount = pointCount(face, projection, skipAllPoints);
+        if (pointCount > 0) {
+            byte[] bytes = new byte[pointCount * FLOATS_PER_POINT * BYTES_PER_FLOAT];
+            int offset = 0;
+            int point = 0;
+
+            JSONArray landmarkIndex = new JSONArray();
+            for (DetectedFace.Landmark landmark : face.landmarks) {
+                if (!projection.hasLandmark(landmark.type)) {
+                    continue;
+                }
+
+                landmarkIndex.put(landmark.type);
+                landmarkIndex.put(point);
+
+                offset = putFloat(bytes, offset, landmark.x);
+                offset = putFloat(bytes, offset, landmark.y);
+                offset = putFloat(bytes, offset, landmark.z);
+                point++;
+            }
+
+            JSONArray contourIndex = new JSONArray();
+            for (DetectedFace.Contour contour : face.contours) {
+                if (!includes(contour, projection, skipAllPoints)) {
+                    continue;
+                }
+
+                contourIndex.put(contour.type);
+                contourIndex.put(point);
+                contourIndex.put(contour.size());
+
+                for (float value : contour.points) {
+                    offset = putFloat(bytes, offset, value);
+                }
+                point += contour.size();
+            }
+
+            faceObject.put("points", Base64Codec.encode(bytes, 0, bytes.length));
+
+            if (landmarkIndex.length() > 0) {
+                faceObject.put("landmarkIndex", landmarkIndex);
+            }
+            if (contourIndex.length() > 0) {
+                faceObject.put("contourIndex", contourIndex);
+            }
+        }
+
+        FaceSerializer.putAttributes(faceObject, face, projection);
+
+        return faceObject;
+    }
+
+    static int pointCount(DetectedFace face, FieldProjection projection, boolean skipAllPoints) {
+        int pointCount = 0;
+
+        for (DetectedFace.Landmark landmark : face.landmarks) {
+            if (projection.hasLandmark(landmark.type)) {
+                pointCount++;
+            }
+        }
+
+        for (DetectedFace.Contour contour : face.contours) {
+            if (includes(contour, projection, skipAllPoints)) {
+                pointCount += contour.size();
+            }
+        }
+
+        return pointCount;
+    }
+
+    private static boolean includes(DetectedFace.Contour contour, FieldProjection projection, boolean skipAllPoints) {
+        return projection.hasContour(contour.type) && !(skipAllPoints && contour.type == ALL_POINTS);
+    }
+
+    private static boolean hasIndividualContours(DetectedFace face, FieldProjection projection) {
+        for (DetectedFace.Contour contour : face.contours) {
+            if (contour.type != ALL_POINTS && projection.hasContour(contour.type)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static int putFloat(byte[] bytes, int offset, float value) {
+        int bits = Float.floatToRawIntBits(value);
+
+        bytes[offset++] = (byte) bits;
+        bytes[offset++] = (byte) (bits >>> 8);
+        bytes[offset++] = (byte) (bits >>> 16);
+        bytes[offset++] = (byte) (bits >>> 24);
+
+        return offset;
+    }
+}
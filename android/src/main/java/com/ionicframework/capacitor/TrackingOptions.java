@@ -0,0 +1,104 @@
+package com.ionicframework.capacitor;
+
+import org.json.JSONObject;
+
+// Options of the face tracker smoothing and diffing the faces of consecutive frames, passed as "tracking".
+final class TrackingOptions {
+    static final TrackingOptions DEFAULT = new TrackingOptions(1000, true, 1.0, 0.007, 1.0, false, 2);
+
+    // How long the state of a face is kept after it was last seen.
+    final long ttlMs;
+
+    // Whether bounds, Euler angles and landmarks are smoothed, see OneEuroFilter.
+    final boolean smoothing;
+    final double minCutoff;
+    final double beta;
+    final double derivateCutoff;
+
+    // Whether only the faces which appeared or moved are returned, next to the ids of the faces which disappeared.
+    final boolean delta;
+    // The distance in pixels (or degrees for the Euler angles) a face has to move to be returned again.
+    final float deltaThreshold;
+
+    TrackingOptions(long ttlMs, boolean smoothing, double minCutoff, double beta, double derivateCutoff, boolean delta, float deltaThreshold) {
+        this.ttlMs = ttlMs;
+        this.smoothing = smoothing;
+        this.minCutoff = minCutoff;
+        this.beta = beta;
+        this.derivateCutoff = derivateCutoff;
+        this.delta = delta;
+        this.deltaThreshold = deltaThreshold;
+    }
+
+    // Parses the "tracking" option, either true for the defaults or an object. Returns null if tracking is off.
+    static TrackingOptions fromJSONObject(JSONObject object) {
+        if (object == null) {
+            return null;
+        }
+
+        Object tracking = object.opt("tracking");
+
+        if (Boolean.TRUE.equals(tracking)) {
+            return DEFAULT;
+        }
+        if (!(tracking instanceof JSONObject)) {
+            return null;
+        }
+
+        JSONObject trackingObject = (JSONObject) tracking;
+
+        TrackingOptions options = new TrackingOptions(
+                trackingObject.optLong("ttlMs", DEFAULT.ttlMs),
+                trackingObject.optBoolean("smoothing", DEFAULT.smoothing),
+                trackingObject.optDouble("minCutoff", DEFAULT.minCutoff),
+                trackingObject.optDouble("beta", DEFAULT.beta),
+                trackingObject.optDouble("derivateCutoff", DEFAULT.derivateCutoff),
+                trackingObject.optBoolean("delta", DEFAULT.delta),
+                (float) trackingObject.optDouble("deltaThreshold", DEFAULT.deltaThreshold)
+        );
+
+        if (options.ttlMs <= 0) {
+            throw new IllegalArgumentException("ttlMs must be positive");
+        }
+        if (options.minCutoff <= 0 || options.derivateCutoff <= 0 || options.beta < 0) {
+            throw new IllegalArgumentException("minCutoff and derivateCutoff must be positive, beta must not be negative");
+        }
+        if (options.deltaThreshold < 0) {
+            throw new IllegalArgumentException("deltaThreshold must not be negative");
+        }
+
+        return options;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TrackingOptions)) {
+            return false;
+        }
+
+        TrackingOptions that = (TrackingOptions) o;
+
+        return ttlMs == that.ttlMs
+                && smoothing == that.smoothing
+                && Double.compare(minCutoff, that.minCutoff) == 0
+                && Double.compare(beta, that.beta) == 0
+                && Double.compare(derivateCutoff, that.derivateCutoff) == 0
+                && delta == that.delta
+                && Float.compare(deltaThreshold, that.deltaThreshold) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = (int) (ttlMs ^ (ttlMs >>> 32));
+        result = 31 * result + (smoothing ? 1 : 0);
+        result = 31 * result + Double.valueOf(minCutoff).hashCode();
+        result = 31 * result + Double.valueOf(beta).hashCode();
+        result = 31 * result + Double.valueOf(derivateCutoff).hashCode();
+        result = 31 * result + (delta ? 1 : 0);
+        result = 31 * result + Float.floatToIntBits(deltaThreshold);
+        return result;
+    }
+}
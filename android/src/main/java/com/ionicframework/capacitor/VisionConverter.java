@@ -0,0 +1,135 @@
+package com.ionicframework.capacitor;
+
+import android.graphics.Point;
+import android.graphics.Rect;
+
+import com.google.firebase.ml.vision.barcode.FirebaseVisionBarcode;
+import com.google.firebase.ml.vision.label.FirebaseVisionImageLabel;
+import com.google.firebase.ml.vision.text.FirebaseVisionText;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.List;
+
+// Converts the barcodes, text and labels returned by the detectors of a detect call into its result, mapping their coordinates back to the original image.
+final class VisionConverter {
+    private VisionConverter() {
+    }
+
+    // https://firebase.google.com/docs/reference/android/com/google/firebase/ml/vision/barcode/FirebaseVisionBarcode
+    static JSONArray barcodesArray(List<FirebaseVisionBarcode> barcodes, ImageTransform transform) throws JSONException {
+        JSONArray barcodesArray = new JSONArray();
+
+        for (FirebaseVisionBarcode barcode : barcodes) {
+            JSONObject barcodeObject = new JSONObject();
+
+            barcodeObject.put("format", barcode.getFormat());
+            barcodeObject.put("valueType", barcode.getValueType());
+            barcodeObject.put("rawValue", barcode.getRawValue());
+            barcodeObject.put("displayValue", barcode.getDisplayValue());
+
+            Rect bounds = barcode.getBoundingBox();
+            if (bounds != null) {
+                barcodeObject.put("bounds", boundsObject(bounds, transform));
+            }
+
+            Point[] cornerPoints = barcode.getCornerPoints();
+            if (cornerPoints != null) {
+                JSONArray cornerPointsArray = new JSONArray();
+                for (Point point : cornerPoints) {
+                    JSONObject pointObject = new JSONObject();
+                    pointObject.put("x", transform.mapX(point.x));
+                    pointObject.put("y", transform.mapY(point.y));
+
+                    cornerPointsArray.put(pointObject);
+                }
+                barcodeObject.put("cornerPoints", cornerPointsArray);
+            }
+
+            barcodesArray.put(barcodeObject);
+        }
+
+        return barcodesArray;
+    }
+
+    // The recognized text, and its blocks, lines and elements.
+    // https://firebase.google.com/docs/reference/android/com/google/firebase/ml/vision/text/FirebaseVisionText
+    static JSONObject textObject(FirebaseVisionText text, ImageTransform transform) throws JSONException {
+        JSONObject textObject = new JSONObject();
+
+        textObject.put("text", text.getText());
+
+        JSONArray blocksArray = new JSONArray();
+        for (FirebaseVisionText.TextBlock block : text.getTextBlocks()) {
+            JSONObject blockObject = textElementObject(block.getText(), block.getBoundingBox(), block.getConfidence(), transform);
+
+            JSONArray linesArray = new JSONArray();
+            for (FirebaseVisionText.Line line : block.getLines()) {
+                JSONObject lineObject = textElementObject(line.getText(), line.getBoundingBox(), line.getConfidence(), transform);
+
+                JSONArray elementsArray = new JSONArray();
+                for (FirebaseVisionText.Element element : line.getElements()) {
+                    elementsArray.put(textElementObject(element.getText(), element.getBoundingBox(), element.getConfidence(), transform));
+                }
+                lineObject.put("elements", elementsArray);
+
+                linesArray.put(lineObject);
+            }
+            blockObject.put("lines", linesArray);
+
+            blocksArray.put(blockObject);
+        }
+        textObject.put("blocks", blocksArray);
+
+        return textObject;
+    }
+
+    // https://firebase.google.com/docs/reference/android/com/google/firebase/ml/vision/label/FirebaseVisionImageLabel
+    static JSONArray labelsArray(List<FirebaseVisionImageLabel> labels) throws JSONException {
+        JSONArray labelsArray = new JSONArray();
+
+        for (FirebaseVisionImageLabel label : labels) {
+            JSONObject labelObject = new JSONObject();
+
+            labelObject.put("text", label.getText());
+            labelObject.put("confidence", label.getConfidence());
+            if (label.getEntityId() != null) {
+                labelObject.put("entityId", label.getEntityId());
+            }
+
+            labelsArray.put(labelObject);
+        }
+
+        return labelsArray;
+    }
+
+    private static JSONObject textElementObject(String text, Rect bounds, Float confidence, ImageTransform transform) throws JSONException {
+        JSONObject elementObject = new JSONObject();
+
+        elementObject.put("text", text);
+        if (bounds != null) {
+            elementObject.put("bounds", boundsObject(bounds, transform));
+        }
+        // The on-device recognizer does not compute confidences, only the cloud recognizer does.
+        if (confidence != null) {
+            elementObject.put("confidence", confidence);
+        }
+
+        return elementObject;
+    }
+
+    private static JSONObject boundsObject(Rect bounds, ImageTransform transform) throws JSONException {
+        int left = transform.mapX(bounds.left);
+        int top = transform.mapY(bounds.top);
+
+        JSONObject boundsObject = new JSONObject();
+        boundsObject.put("x", left);
+        boundsObject.put("y", top);
+        boundsObject.put("width", transform.mapX(bounds.right) - left);
+        boundsObject.put("height", transform.mapY(bounds.bottom) - top);
+
+        return boundsObject;
+    }
+}
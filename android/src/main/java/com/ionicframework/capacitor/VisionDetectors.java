@@ -0,0 +1,344 @@
+package com.ionicframework.capacitor;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.ml.vision.FirebaseVision;
+import com.google.firebase.ml.vision.barcode.FirebaseVisionBarcode;
+import com.google.firebase.ml.vision.barcode.FirebaseVisionBarcodeDetector;
+import com.google.firebase.ml.vision.barcode.FirebaseVisionBarcodeDetectorOptions;
+import com.google.firebase.ml.vision.common.FirebaseVisionImage;
+import com.google.firebase.ml.vision.label.FirebaseVisionImageLabel;
+import com.google.firebase.ml.vision.label.FirebaseVisionImageLabeler;
+import com.google.firebase.ml.vision.label.FirebaseVisionOnDeviceImageLabelerOptions;
+import com.google.firebase.ml.vision.text.FirebaseVisionText;
+import com.google.firebase.ml.vision.text.FirebaseVisionTextRecognizer;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Runs the detectors requested by a detect call on one decoded image, and merges their results.
+// All requested detectors are started at once, so their models run concurrently. A failing detector only fails its own part of the result.
+// The detectors are cached by their options and reused across calls, faces are detected through the shared face detector backend.
+class VisionDetectors {
+    private static final String TAG = "VisionDetectors";
+
+    // The number of barcode detectors and image labelers kept alive, by their options.
+    private static final int MAX_DETECTORS = 2;
+
+    interface Listener {
+        // The results and the duration of every detector by its name, and the messages of the failed detectors.
+        void onComplete(JSONObject results, JSONObject timings, JSONObject errors);
+    }
+
+    private final FaceDetectorBackend<FirebaseVisionImage> faceDetectorBackend;
+
+    // Barcode detectors by the OR'ed formats they scan for.
+    private final DetectorCache<Integer, FirebaseVisionBarcodeDetector> barcodeDetectors;
+
+    // The on-device text recognizer has no options, so there is only ever one.
+    private final DetectorCache<Boolean, FirebaseVisionTextRecognizer> textRecognizers;
+
+    // Image labelers by their confidence threshold.
+    private final DetectorCache<Float, FirebaseVisionImageLabeler> imageLabelers;
+
+    // The scheduler closes the detectors which have been idle for too long.
+    VisionDetectors(FaceDetectorBackend<FirebaseVisionImage> faceDetectorBackend, ScheduledExecutorService scheduler) {
+        this.faceDetectorBackend = faceDetectorBackend;
+
+        this.barcodeDetectors = new DetectorCache<>(
+                VisionDetectors::createBarcodeDetector,
+                VisionDetectors::logCloseFailure,
+                MAX_DETECTORS,
+                DetectorCache.DEFAULT_IDLE_TIMEOUT_MS,
+                SystemClock::elapsedRealtime,
+                scheduler
+        );
+
+        this.textRecognizers = new DetectorCache<>(
+                (Boolean key) -> FirebaseVision.getInstance().getOnDeviceTextRecognizer(),
+                VisionDetectors::logCloseFailure,
+                1,
+                DetectorCache.DEFAULT_IDLE_TIMEOUT_MS,
+                SystemClock::elapsedRealtime,
+                scheduler
+        );
+
+        this.imageLabelers = new DetectorCache<>(
+                VisionDetectors::createImageLabeler,
+                VisionDetectors::logCloseFailure,
+                MAX_DETECTORS,
+                DetectorCache.DEFAULT_IDLE_TIMEOUT_MS,
+                SystemClock::elapsedRealtime,
+                scheduler
+        );
+    }
+
+    // Starts the requested detectors. The listener is called on the executor once all of them completed.
+    // The image must not be modified until then.
+    void detect(
+            FirebaseVisionImage image,
+            final ImageTransform transform,
+            final DetectorSelection selection,
+            final String resultFormat,
+            Executor executor,
+            Listener listener
+    ) {
+        final Detection detection = new Detection(selection.count(), listener);
+
+        if (selection.faceConfig != null) {
+            detectFaces(image, transform, selection, resultFormat, executor, detection);
+        }
+
+        if (selection.barcode) {
+            run(
+                    barcodeDetectors,
+                    selection.barcodeFormats,
+                    (FirebaseVisionBarcodeDetector detector) -> detector.detectInImage(image),
+                    (List<FirebaseVisionBarcode> barcodes) -> VisionConverter.barcodesArray(barcodes, transform),
+                    "barcode",
+                    "barcodes",
+                    executor,
+                    detection
+            );
+        }
+
+        if (selection.text) {
+            run(
+                    textRecognizers,
+                    Boolean.TRUE,
+                    (FirebaseVisionTextRecognizer recognizer) -> recognizer.processImage(image),
+                    (FirebaseVisionText text) -> VisionConverter.textObject(text, transform),
+                    "text",
+                    "text",
+                    executor,
+                    detection
+            );
+        }
+
+        if (selection.label) {
+            run(
+                    imageLabelers,
+                    selection.labelConfidenceThreshold,
+                    (FirebaseVisionImageLabeler labeler) -> labeler.processImage(image),
+                    VisionConverter::labelsArray,
+                    "label",
+                    "labels",
+                    executor,
+                    detection
+            );
+        }
+    }
+
+    private void detectFaces(
+            FirebaseVisionImage image,
+            ImageTransform transform,
+            final DetectorSelection selection,
+            final String resultFormat,
+            Executor executor,
+            final Detection detection
+    ) {
+        final FaceDetectorBackend.Detector<FirebaseVisionImage> faceDetector;
+        try {
+            faceDetector = faceDetectorBackend.acquire(selection.faceConfig);
+        } catch (Exception e) {
+            detection.fail("face", e);
+            return;
+        }
+
+        try {
+            faceDetector.detect(
+                    image,
+                    transform,
+                    selection.faceProjection,
+                    executor,
+                    new FaceDetectorBackend.Callback() {
+                        @Override
+                        public void onSuccess(List<DetectedFace> faces) {
+                            faceDetector.release();
+
+                            try {
+                                detection.complete("face", "faces", FaceResults.toJSONArray(faces, selection.faceProjection, resultFormat));
+                            } catch (JSONException e) {
+                                detection.fail("face", e);
+                            }
+                        }
+
+                        @Override
+                        public void onFailure(Exception e) {
+                            faceDetector.release();
+
+                            detection.fail("face", e);
+                        }
+                    }
+            );
+        } catch (Exception e) {
+            faceDetector.release();
+
+            detection.fail("face", e);
+        }
+    }
+
+    // Closes all cached detectors. Detectors with pending detections are closed as soon as these complete.
+    void clear() {
+        barcodeDetectors.clear();
+        textRecognizers.clear();
+        imageLabelers.clear();
+    }
+
+    private interface Processor<D, R> {
+        Task<R> process(D detector);
+    }
+
+    private interface Converter<R> {
+        Object convert(R result) throws JSONException;
+    }
+
+    // Runs one cached detector, handing it back once its task completed.
+    private static <K, D extends Closeable, R> void run(
+            final DetectorCache<K, D> cache,
+            K key,
+            Processor<D, R> processor,
+            final Converter<R> converter,
+            final String name,
+            final String resultKey,
+            Executor executor,
+            final Detection detection
+    ) {
+        // Creating a detector may fail, e.g. if its model is missing.
+        final DetectorCache.Entry<K, D> entry;
+        try {
+            entry = cache.acquire(key);
+        } catch (Exception e) {
+            detection.fail(name, e);
+            return;
+        }
+
+        try {
+            processor.process(entry.detector)
+                    .addOnSuccessListener(
+                            executor,
+                            (R result) -> {
+                                cache.release(entry);
+
+                                try {
+                                    detection.complete(name, resultKey, converter.convert(result));
+                                } catch (JSONException e) {
+                                    detection.fail(name, e);
+                                }
+                            }
+                    )
+                    .addOnFailureListener(
+                            executor,
+                            (Exception e) -> {
+                                cache.release(entry);
+
+                                detection.fail(name, e);
+                            }
+                    );
+        } catch (Exception e) {
+            cache.release(entry);
+
+            detection.fail(name, e);
+        }
+    }
+
+    // Merges the results of the detectors of one call as they complete.
+    private static final class Detection {
+        private final long startedAt = SystemClock.elapsedRealtimeNanos();
+
+        private final JSONObject results = new JSONObject();
+        private final JSONObject timings = new JSONObject();
+        private final JSONObject errors = new JSONObject();
+
+        private final AtomicInteger remaining;
+        private final Listener listener;
+
+        Detection(int count, Listener listener) {
+            this.remaining = new AtomicInteger(count);
+            this.listener = listener;
+        }
+
+        void complete(String name, String resultKey, Object result) throws JSONException {
+            synchronized (this) {
+                results.put(resultKey, result);
+
+                putDuration(name);
+            }
+
+            countDown();
+        }
+
+        void fail(String name, Exception e) {
+            synchronized (this) {
+                try {
+                    errors.put(name, String.valueOf(e.getLocalizedMessage()));
+
+                    putDuration(name);
+                } catch (JSONException jsonException) {
+                    // Keys and values are never null, so this never happens.
+                }
+            }
+
+            countDown();
+        }
+
+        // The time from starting all detectors until this one completed, which includes the time it waited for the others while they shared the CPU.
+        private void putDuration(String name) throws JSONException {
+            timings.put(name + "Ms", (SystemClock.elapsedRealtimeNanos() - startedAt) / 1e6);
+        }
+
+        private void countDown() {
+            if (remaining.decrementAndGet() == 0) {
+                // The last detector to complete has made all earlier writes visible through the synchronized blocks.
+                synchronized (this) {
+                    listener.onComplete(results, timings, errors);
+                }
+            }
+        }
+    }
+
+    private static FirebaseVisionBarcodeDetector createBarcodeDetector(Integer formats) {
+        if (formats == DetectorSelection.ALL_BARCODE_FORMATS) {
+            return FirebaseVision.getInstance().getVisionBarcodeDetector();
+        }
+
+        // Scanning for fewer formats makes the detector faster.
+        // https://firebase.google.com/docs/ml-kit/android/read-barcodes#configure-the-barcode-detector
+        int[] formatBits = new int[Integer.bitCount(formats)];
+        int remainingFormats = formats;
+        for (int i = 0; i < formatBits.length; i++) {
+            formatBits[i] = Integer.lowestOneBit(remainingFormats);
+            remainingFormats &= remainingFormats - 1;
+        }
+
+        int[] moreFormats = new int[formatBits.length - 1];
+        System.arraycopy(formatBits, 1, moreFormats, 0, moreFormats.length);
+
+        return FirebaseVision.getInstance().getVisionBarcodeDetector(
+                new FirebaseVisionBarcodeDetectorOptions.Builder()
+                        .setBarcodeFormats(formatBits[0], moreFormats)
+                        .build()
+        );
+    }
+
+    private static FirebaseVisionImageLabeler createImageLabeler(Float confidenceThreshold) {
+        // https://firebase.google.com/docs/ml-kit/android/label-images#on-device
+        return FirebaseVision.getInstance().getOnDeviceImageLabeler(
+                new FirebaseVisionOnDeviceImageLabelerOptions.Builder()
+                        .setConfidenceThreshold(confidenceThreshold)
+                        .build()
+        );
+    }
+
+    private static <K> void logCloseFailure(K key, Exception e) {
+        Log.w(TAG, "Unable to close detector " + key, e);
+    }
+}
@@ -0,0 +1,78 @@
+package com.ionicframework.capacitor;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests of the governor adapting the detector settings to the latency budget, running on the development machine (host).
+ */
+public class AdaptiveGovernorTest {
+    private static final FaceDetectorConfig ACCURATE_WITH_CONTOURS = new FaceDetectorConfig(
+            FaceDetectorConfig.ACCURATE,
+            FaceDetectorConfig.ALL_LANDMARKS,
+            FaceDetectorConfig.NO_CLASSIFICATIONS,
+            FaceDetectorConfig.ALL_CONTOURS,
+            FaceDetectorConfig.DEFAULT_MIN_FACE_SIZE,
+            false
+    );
+
+    private static void record(AdaptiveGovernor governor, double latencyMs, int count) {
+        for (int i = 0; i < count; i++) {
+            governor.record((long) (latencyMs * 1e6));
+        }
+    }
+
+    @Test
+    public void record_stepsDownWhileOverBudgetAndBackUpWithHeadroom() {
+        AdaptiveGovernor governor = new AdaptiveGovernor(new AdaptiveOptions(100, 0), true);
+
+        AdaptiveGovernor.Settings settings = governor.settings(ACCURATE_WITH_CONTOURS, 0);
+        assertEquals(ACCURATE_WITH_CONTOURS, settings.config);
+
+        // Every level is measured for a few detections before the next step.
+        record(governor, 200, AdaptiveGovernor.MIN_SAMPLES - 1);
+        assertEquals(0, governor.getLevel());
+
+        record(governor, 200, 1);
+        settings = governor.settings(ACCURATE_WITH_CONTOURS, 0);
+        assertEquals(FaceDetectorConfig.NO_CONTOURS, settings.config.contourMode);
+        assertEquals(FaceDetectorConfig.ACCURATE, settings.config.performanceMode);
+
+        record(governor, 200, AdaptiveGovernor.MIN_SAMPLES * AdaptiveGovernor.MAX_LEVEL);
+        settings = governor.settings(ACCURATE_WITH_CONTOURS, 0);
+        assertEquals(AdaptiveGovernor.MAX_LEVEL, settings.level);
+        assertEquals(FaceDetectorConfig.FAST, settings.config.performanceMode);
+        assertEquals(0.3f, settings.config.minFaceSize, 0);
+        assertEquals(320, settings.maxDimension);
+
+        // Within the budget, but without enough headroom.
+        record(governor, 80, AdaptiveGovernor.MIN_SAMPLES * 4);
+        assertEquals(AdaptiveGovernor.MAX_LEVEL, governor.getLevel());
+
+        record(governor, 10, AdaptiveGovernor.MIN_SAMPLES * (AdaptiveGovernor.MAX_LEVEL + 2));
+        assertEquals(0, governor.getLevel());
+        assertEquals(ACCURATE_WITH_CONTOURS, governor.settings(ACCURATE_WITH_CONTOURS, 0).config);
+    }
+
+    @Test
+    public void record_skipsLevelsWhichDoNotApply() {
+        // Neither contours nor ACCURATE were requested, and camera frames are never downscaled.
+        AdaptiveGovernor governor = new AdaptiveGovernor(new AdaptiveOptions(1000, 30), false);
+        governor.settings(FaceDetectorConfig.DEFAULT, 0);
+
+        record(governor, 50, AdaptiveGovernor.MIN_SAMPLES);
+        AdaptiveGovernor.Settings settings = governor.settings(FaceDetectorConfig.DEFAULT, 0);
+        assertEquals(3, settings.level);
+        assertEquals(0.2f, settings.config.minFaceSize, 0);
+
+        record(governor, 50, AdaptiveGovernor.MIN_SAMPLES * 2);
+        settings = governor.settings(FaceDetectorConfig.DEFAULT, 0);
+        assertEquals(5, settings.level);
+        assertEquals(0, settings.maxDimension);
+
+        // The last level only downscales, so there is no further step.
+        record(governor, 50, AdaptiveGovernor.MIN_SAMPLES);
+        assertEquals(5, governor.getLevel());
+    }
+}
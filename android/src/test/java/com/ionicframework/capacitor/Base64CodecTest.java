@@ -0,0 +1,53 @@
+package com.ionicframework.capacitor;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests of the Base64 decoding into pooled buffers, running on the development machine (host).
+ */
+public class Base64CodecTest {
+    @Test
+    public void decode_matchesJavaUtilBase64() {
+        Random random = new Random(42);
+
+        for (int length = 0; length < 200; length++) {
+            byte[] data = new byte[length];
+            random.nextBytes(data);
+
+            String encoded = java.util.Base64.getMimeEncoder(16, "\n".getBytes()).encodeToString(data);
+
+            byte[] buffer = new byte[Base64Codec.maxDecodedLength(encoded)];
+            int decodedLength = Base64Codec.decode(encoded, buffer);
+
+            assertArrayEquals(data, Arrays.copyOf(buffer, decodedLength));
+
+            // Padding is optional.
+            String unpadded = encoded.replace("=", "");
+            assertEquals(length, Base64Codec.decode(unpadded, new byte[Base64Codec.maxDecodedLength(unpadded)]));
+        }
+    }
+
+    @Test
+    public void decode_skipsCharactersOutsideOfTheAlphabet() {
+        byte[] data = "any carnal pleasure".getBytes();
+        String encoded = java.util.Base64.getEncoder().encodeToString(data);
+
+        // Line breaks, spaces and other stray characters are skipped like android.util.Base64.DEFAULT does.
+        String noisy = " " + encoded.substring(0, 7) + "\r\n" + encoded.substring(7, 12) + "\t*-_" + encoded.substring(12) + "\n";
+
+        byte[] buffer = new byte[Base64Codec.maxDecodedLength(noisy)];
+        int decodedLength = Base64Codec.decode(noisy, buffer);
+
+        assertArrayEquals(data, Arrays.copyOf(buffer, decodedLength));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decode_rejectsTruncatedContent() {
+        Base64Codec.decode("abcde", new byte[6]);
+    }
+}
@@ -0,0 +1,85 @@
+package com.ionicframework.capacitor;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests of the pool of decode buffers and bitmaps, running on the development machine (host).
+ */
+public class BucketedPoolTest {
+    private final List<byte[]> evicted = new ArrayList<>();
+
+    private BucketedPool<byte[]> pool(long maxBytes) {
+        return new BucketedPool<>(maxBytes, (byte[] buffer) -> buffer.length, evicted::add);
+    }
+
+    @Test
+    public void acquire_reusesItemsOfTheSameSize() {
+        BucketedPool<byte[]> pool = pool(1 << 20);
+
+        assertNull(pool.acquire(1000));
+
+        byte[] buffer = new byte[1000];
+        pool.release(buffer);
+
+        assertSame(buffer, pool.acquire(1000));
+        assertSame(null, pool.acquire(1000));
+
+        assertEquals(1, pool.getHits());
+        assertEquals(2, pool.getMisses());
+        assertEquals(0, pool.getRetainedBytes());
+    }
+
+    @Test
+    public void acquire_neverReturnsSmallerOrMuchLargerItems() {
+        BucketedPool<byte[]> pool = pool(1 << 20);
+
+        pool.release(new byte[900]);
+        pool.release(new byte[5000]);
+
+        assertNull(pool.acquire(1000));
+        assertEquals(5000, pool.acquire(3000).length);
+        assertEquals(900, pool.acquire(500).length);
+
+        for (int size = 1; size < 100_000; size += 7) {
+            int bucket = BucketedPool.floorBucket(size);
+
+            assertTrue(BucketedPool.lowerBound(bucket) <= size);
+            assertTrue(BucketedPool.lowerBound(bucket + 1) > size);
+        }
+    }
+
+    @Test
+    public void release_evictsLeastRecentlyReleasedAboveCap() {
+        BucketedPool<byte[]> pool = pool(3000);
+
+        byte[] first = new byte[1000];
+        byte[] second = new byte[1000];
+        byte[] third = new byte[2000];
+
+        pool.release(first);
+        pool.release(second);
+        pool.release(third);
+
+        assertEquals(1, evicted.size());
+        assertSame(first, evicted.get(0));
+        assertEquals(3000, pool.getRetainedBytes());
+
+        // Items above the cap are never retained.
+        pool.release(new byte[4000]);
+        assertEquals(2, evicted.size());
+
+        pool.trimToSize(2000);
+        assertEquals(1, pool.size());
+        assertSame(third, pool.acquire(2000));
+
+        pool.release(first);
+        pool.clear();
+        assertEquals(0, pool.size());
+        assertEquals(0, pool.getRetainedBytes());
+    }
+}
@@ -0,0 +1,32 @@
+package com.ionicframework.capacitor;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests of the cancellation and deadlines of detectInImage calls, running on the development machine (host).
+ */
+public class DetectionRequestTest {
+    private static final long MS = 1_000_000L;
+
+    @Test
+    public void abandonReason_reportsDeadlineAndCancellation() {
+        DetectionRequest<Object> request = new DetectionRequest<>("a", new Object(), 1000 * MS, 50);
+
+        assertNull(request.abandonReason(1000 * MS));
+        assertNull(request.abandonReason(1050 * MS));
+        assertEquals(DetectionRequest.DEADLINE_EXCEEDED, request.abandonReason(1051 * MS));
+
+        request.cancel();
+        assertEquals(DetectionRequest.CANCELLED, request.abandonReason(1000 * MS));
+    }
+
+    @Test
+    public void abandonReason_neverExpiresWithoutDeadline() {
+        DetectionRequest<Object> request = new DetectionRequest<>(null, new Object(), -5 * MS, 0);
+
+        assertNull(request.abandonReason(Long.MAX_VALUE));
+        assertNull(request.abandonReason(Long.MIN_VALUE));
+    }
+}
@@ -0,0 +1,189 @@
+package com.ionicframework.capacitor;
+
+import org.junit.Test;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests of the reuse and closing of cached detectors, running on the development machine (host).
+ */
+public class DetectorCacheTest {
+    private static final class FakeDetector implements Closeable {
+        final String key;
+        volatile boolean closed;
+
+        FakeDetector(String key) {
+            this.key = key;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    private final List<FakeDetector> created = new CopyOnWriteArrayList<>();
+
+    private long now;
+
+    private DetectorCache<String, FakeDetector> cache(int maxDetectors) {
+        return cache(maxDetectors, DetectorCache.NO_IDLE_TIMEOUT);
+    }
+
+    private DetectorCache<String, FakeDetector> cache(int maxDetectors, long idleTimeoutMs) {
+        return cache(maxDetectors, idleTimeoutMs, () -> now, null);
+    }
+
+    private DetectorCache<String, FakeDetector> cache(int maxDetectors, long idleTimeoutMs, DetectorCache.Clock clock, ScheduledExecutorService scheduler) {
+        return new DetectorCache<>(
+                (String key) -> {
+                    FakeDetector detector = new FakeDetector(key);
+                    created.add(detector);
+                    return detector;
+                },
+                (String key, IOException e) -> fail("Unexpected close failure"),
+                maxDetectors,
+                idleTimeoutMs,
+                clock,
+                scheduler
+        );
+    }
+
+    @Test
+    public void acquire_reusesDetectorPerKey() {
+        DetectorCache<String, FakeDetector> cache = cache(2);
+
+        DetectorCache.Entry<String, FakeDetector> first = cache.acquire("qr");
+        cache.release(first);
+        DetectorCache.Entry<String, FakeDetector> second = cache.acquire("qr");
+        cache.release(second);
+
+        assertSame(first.detector, second.detector);
+        assertEquals(1, cache.getCreated());
+        assertFalse(first.detector.closed);
+    }
+
+    @Test
+    public void acquire_evictsLeastRecentlyUsedDetector() {
+        DetectorCache<String, FakeDetector> cache = cache(2);
+
+        cache.release(cache.acquire("a"));
+        cache.release(cache.acquire("b"));
+        cache.release(cache.acquire("a"));
+        cache.release(cache.acquire("c"));
+
+        assertEquals(2, cache.size());
+        assertFalse(created.get(0).closed);
+        assertTrue(created.get(1).closed);
+        assertFalse(created.get(2).closed);
+    }
+
+    @Test
+    public void clear_closesDetectorsInUseOnceReleased() {
+        DetectorCache<String, FakeDetector> cache = cache(2);
+
+        DetectorCache.Entry<String, FakeDetector> inUse = cache.acquire("a");
+        cache.release(cache.acquire("b"));
+
+        cache.clear();
+
+        assertEquals(0, cache.size());
+        assertFalse(inUse.detector.closed);
+        assertTrue(created.get(1).closed);
+
+        cache.release(inUse);
+        assertTrue(inUse.detector.closed);
+
+        // A later call creates a new detector.
+        DetectorCache.Entry<String, FakeDetector> next = cache.acquire("a");
+        assertNotSame(inUse.detector, next.detector);
+        assertFalse(next.detector.closed);
+    }
+
+    @Test
+    public void acquire_closesIdleDetectorsButNotDetectorsInUse() {
+        DetectorCache<String, FakeDetector> cache = cache(4, 1000);
+
+        DetectorCache.Entry<String, FakeDetector> idle = cache.acquire("a");
+        cache.release(idle);
+        DetectorCache.Entry<String, FakeDetector> inUse = cache.acquire("b");
+
+        now += 999;
+        cache.release(cache.acquire("c"));
+        assertFalse(idle.detector.closed);
+
+        now += 1;
+        cache.release(cache.acquire("c"));
+        assertTrue(idle.detector.closed);
+        assertFalse(inUse.detector.closed);
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void acquire_evictsDetectorInUseButClosesItOnceReleased() {
+        DetectorCache<String, FakeDetector> cache = cache(1);
+
+        DetectorCache.Entry<String, FakeDetector> inUse = cache.acquire("a");
+        DetectorCache.Entry<String, FakeDetector> other = cache.acquire("b");
+
+        // The size limit evicted the first detector, but its task is still running.
+        assertEquals(1, cache.size());
+        assertFalse(inUse.detector.closed);
+
+        cache.release(inUse);
+        assertTrue(inUse.detector.closed);
+
+        cache.release(other);
+        assertFalse(other.detector.closed);
+    }
+
+    @Test
+    public void release_schedulesIdleEvictionWithoutFurtherCalls() throws Exception {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            DetectorCache<String, FakeDetector> cache = cache(4, 50, () -> System.nanoTime() / 1_000_000, scheduler);
+
+            DetectorCache.Entry<String, FakeDetector> entry = cache.acquire("a");
+            cache.release(entry);
+
+            assertFalse(entry.detector.closed);
+
+            // No further call touches the cache, the scheduled eviction closes the idle detector.
+            long deadline = System.nanoTime() + 5_000_000_000L;
+            while (!entry.detector.closed && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+
+            assertTrue(entry.detector.closed);
+            assertEquals(0, cache.size());
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    public void clear_cancelsScheduledIdleEviction() {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1);
+        // Cancelled tasks leave the queue right away.
+        scheduler.setRemoveOnCancelPolicy(true);
+        try {
+            DetectorCache<String, FakeDetector> cache = cache(4, 60_000, () -> now, scheduler);
+
+            cache.release(cache.acquire("a"));
+            cache.clear();
+
+            assertTrue(created.get(0).closed);
+            assertEquals(0, scheduler.getQueue().size());
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.ionicframework.capacitor;
+
+import org.json.JSONObject;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests of the parsing of the detectors requested by detect calls, running on the development machine (host).
+ */
+public class DetectorSelectionTest {
+    @Test
+    public void fromJSONObject_parsesDetectorsAndOptions() throws Exception {
+        DetectorSelection selection = DetectorSelection.fromJSONObject(new JSONObject(
+                "{\"face\": true, \"barcode\": {\"formats\": [1, 256]}, \"text\": false, \"label\": {\"confidenceThreshold\": 0.7}}"
+        ));
+
+        assertNotNull(selection.faceConfig);
+        assertSame(FieldProjection.ALL, selection.faceProjection);
+        assertTrue(selection.barcode);
+        assertEquals(1 | 256, selection.barcodeFormats);
+        assertFalse(selection.text);
+        assertTrue(selection.label);
+        assertEquals(0.7f, selection.labelConfidenceThreshold, 1e-6);
+        assertEquals(3, selection.count());
+    }
+
+    @Test
+    public void fromJSONObject_defaultsToAllFormatsAndDefaultThreshold() throws Exception {
+        DetectorSelection selection = DetectorSelection.fromJSONObject(new JSONObject("{\"barcode\": true, \"label\": {}}"));
+
+        assertNull(selection.faceConfig);
+        assertEquals(DetectorSelection.ALL_BARCODE_FORMATS, selection.barcodeFormats);
+        assertEquals(DetectorSelection.DEFAULT_LABEL_CONFIDENCE_THRESHOLD, selection.labelConfidenceThreshold, 0);
+    }
+
+    @Test
+    public void fromJSONObject_treatsAllFormatsEntryAsAllFormats() throws Exception {
+        DetectorSelection selection = DetectorSelection.fromJSONObject(new JSONObject("{\"barcode\": {\"formats\": [256, 0]}}"));
+
+        assertEquals(DetectorSelection.ALL_BARCODE_FORMATS, selection.barcodeFormats);
+    }
+
+    @Test
+    public void fromJSONObject_rejectsUnknownFormats() throws Exception {
+        for (int format : new int[]{-1, 3, 8192, Integer.MIN_VALUE}) {
+            try {
+                DetectorSelection.fromJSONObject(new JSONObject("{\"barcode\": {\"formats\": [1, " + format + "]}}"));
+                fail("Accepted barcode format " + format);
+            } catch (IllegalArgumentException e) {
+                // Expected.
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fromJSONObject_rejectsEmptySelection() throws Exception {
+        DetectorSelection.fromJSONObject(new JSONObject("{\"face\": false}"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fromJSONObject_rejectsInvalidThreshold() throws Exception {
+        DetectorSelection.fromJSONObject(new JSONObject("{\"label\": {\"confidenceThreshold\": 1.5}}"));
+    }
+}
@@ -0,0 +1,121 @@
+package com.ionicframework.capacitor;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests of the detection path from scheduling to the serialized result, running against the fake backend on the development machine (host).
+ */
+public class FaceDetectorBackendTest {
+    private final ExecutorService detectorExecutor = Executors.newFixedThreadPool(2);
+
+    @After
+    public void tearDown() throws Exception {
+        detectorExecutor.shutdownNow();
+    }
+
+    @Test
+    public void detect_runsScheduledFramesEndToEnd() throws Exception {
+        final FakeFaceDetectorBackend backend = new FakeFaceDetectorBackend(TimeUnit.MILLISECONDS.toNanos(5));
+
+        final FieldProjection projection = FieldProjection.compile("bounds", "landmarks", "trackingId");
+        final FaceDetectorConfig config = projection.apply(
+                FaceDetectorConfig.fromJSONObject(new JSONObject("{\"landmarkMode\": 2, \"contourMode\": 2, \"enableTracking\": true}"))
+        );
+
+        final int frames = 20;
+        final CountDownLatch completed = new CountDownLatch(frames);
+        final List<JSONArray> results = Collections.synchronizedList(new ArrayList<>());
+
+        // Assertions fail on the detector threads, so the first error is rethrown on the test thread.
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+
+        final DetectionMetrics metrics = new DetectionMetrics();
+        final FaceDetectionPipeline<FakeFaceDetectorBackend.Image> pipeline = new FaceDetectionPipeline<>(backend, detectorExecutor, metrics, System::nanoTime);
+
+        FrameScheduler<FakeFaceDetectorBackend.Image> scheduler = new FrameScheduler<>(
+                Runnable::run,
+                (image, queueWaitNanos, done) -> {
+                    final JSONObject data = new JSONObject();
+
+                    pipeline.detect(
+                            image,
+                            ImageTransform.IDENTITY,
+                            config,
+                            projection,
+                            FaceResults.FORMAT_JSON,
+                            null,
+                            System.nanoTime(),
+                            new DetectionTimings(),
+                            false,
+                            data,
+                            done,
+                            new FaceDetectionPipeline.Listener() {
+                                @Override
+                                public boolean onDetected(List<DetectedFace> faces) {
+                                    return true;
+                                }
+
+                                @Override
+                                public void onSuccess() {
+                                    try {
+                                        results.add(data.getJSONArray("faces"));
+                                    } catch (Throwable e) {
+                                        error.compareAndSet(null, e);
+                                    }
+
+                                    completed.countDown();
+                                }
+
+                                @Override
+                                public void onFailure(Exception e) {
+                                    error.compareAndSet(null, e);
+
+                                    completed.countDown();
+                                }
+                            }
+                    );
+                },
+                image -> error.compareAndSet(null, new AssertionError("No frame should be dropped"))
+        );
+
+        for (int frame = 0; frame < frames; frame++) {
+            scheduler.submit(new FakeFaceDetectorBackend.Image(3, frame));
+        }
+
+        assertTrue(completed.await(5, TimeUnit.SECONDS));
+
+        if (error.get() != null) {
+            throw new AssertionError(error.get());
+        }
+
+        assertEquals(frames, backend.detections.get());
+        assertEquals(0, backend.acquired.get());
+        assertEquals(frames, metrics.toJSONObject().getInt("count"));
+
+        for (JSONArray faces : results) {
+            assertEquals(3, faces.length());
+
+            JSONObject face = faces.getJSONObject(0);
+            assertTrue(face.has("bounds"));
+            assertEquals(10, face.getJSONArray("landmarks").length());
+            // Contours were turned off by the projection.
+            assertFalse(face.has("contours"));
+            assertFalse(face.has("smilingProbability"));
+            assertEquals(0, face.getInt("trackingId"));
+        }
+    }
+}
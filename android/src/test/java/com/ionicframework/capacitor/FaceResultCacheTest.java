@@ -0,0 +1,195 @@
+package com.ionicframework.capacitor;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests of the result cache and its binary format, running on the development machine (host).
+ */
+public class FaceResultCacheTest {
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private static String key(String imageId) {
+        return FaceResultCache.key(imageId, FaceDetectorConfig.DEFAULT, FieldProjection.ALL, ImageDecodeOptions.DEFAULT);
+    }
+
+    private static String json(List<DetectedFace> faces) throws Exception {
+        return FaceResults.toJSONArray(faces, FieldProjection.ALL, FaceResults.FORMAT_JSON).toString();
+    }
+
+    @Test
+    public void codec_roundTripsFaces() throws Exception {
+        List<DetectedFace> faces = SyntheticFaces.create(3, 7);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DetectedFaceCodec.write(new DataOutputStream(bytes), faces);
+
+        List<DetectedFace> read = DetectedFaceCodec.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), bytes.size());
+
+        assertEquals(json(faces), json(read));
+    }
+
+    @Test
+    public void codec_rejectsCountsBeyondTheLength() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DetectedFaceCodec.write(new DataOutputStream(bytes), SyntheticFaces.create(1, 7));
+
+        // The face count follows the magic and the version.
+        for (int count : new int[]{-1, Integer.MAX_VALUE, 2}) {
+            byte[] corrupt = bytes.toByteArray();
+            ByteBuffer.wrap(corrupt).putInt(5, count);
+
+            try {
+                DetectedFaceCodec.read(new DataInputStream(new ByteArrayInputStream(corrupt)), corrupt.length);
+                fail("Read a face count of " + count);
+            } catch (IOException e) {
+                // Expected, a count of 2 runs out of bytes.
+            }
+        }
+    }
+
+    @Test
+    public void get_dropsCorruptFiles() throws Exception {
+        File directory = temporaryFolder.newFolder();
+
+        FaceResultCache cache = new FaceResultCache(0, Runnable::run);
+        cache.configure(0, directory, FaceResultCache.DEFAULT_MAX_DISK_BYTES);
+        cache.put(key("a"), SyntheticFaces.create(2, 3));
+
+        File file = directory.listFiles()[0];
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            // Overwrites the first landmark count with a huge one, after the key, the header and the fixed fields of the first face.
+            randomAccessFile.seek(2 + key("a").length() + 9 + 40);
+            randomAccessFile.writeInt(Integer.MAX_VALUE / 2);
+        } finally {
+            randomAccessFile.close();
+        }
+
+        assertNull(cache.get(key("a")));
+        assertFalse(file.exists());
+    }
+
+    @Test
+    public void hash_isStableAndTellsContentApart() {
+        assertEquals(FaceResultCache.hash("aGVsbG8gd29ybGQ="), FaceResultCache.hash("aGVsbG8gd29ybGQ="));
+        assertNotEquals(FaceResultCache.hash("aGVsbG8gd29ybGQ="), FaceResultCache.hash("aGVsbG8gd29ybGR="));
+        assertNotEquals(FaceResultCache.hash("abcd"), FaceResultCache.hash("abcdA"));
+        assertEquals(32, FaceResultCache.hash("").length());
+    }
+
+    @Test
+    public void get_evictsLeastRecentlyUsedResults() {
+        List<DetectedFace> faces = SyntheticFaces.create(1, 1);
+        int size = DetectedFaceCodec.sizeOf(faces) + key("a").length() * 2;
+
+        FaceResultCache cache = new FaceResultCache(size * 2, Runnable::run);
+
+        cache.put(key("a"), faces);
+        cache.put(key("b"), faces);
+        assertSame(faces, cache.get(key("a")));
+
+        // "b" is the least recently used result.
+        cache.put(key("c"), faces);
+        assertNull(cache.get(key("b")));
+        assertNotNull(cache.get(key("a")));
+        assertNotNull(cache.get(key("c")));
+
+        assertEquals(3, cache.getMemoryHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void get_readsResultsBackFromDisk() throws Exception {
+        File directory = temporaryFolder.newFolder();
+        List<DetectedFace> faces = SyntheticFaces.create(2, 3);
+
+        FaceResultCache cache = new FaceResultCache(FaceResultCache.DEFAULT_MAX_BYTES, Runnable::run);
+        cache.configure(FaceResultCache.DEFAULT_MAX_BYTES, directory, FaceResultCache.DEFAULT_MAX_DISK_BYTES);
+        cache.put(key("a"), faces);
+
+        // A new cache, e.g. after the app was restarted, has an empty memory tier.
+        FaceResultCache restarted = new FaceResultCache(FaceResultCache.DEFAULT_MAX_BYTES, Runnable::run);
+        restarted.configure(FaceResultCache.DEFAULT_MAX_BYTES, directory, FaceResultCache.DEFAULT_MAX_DISK_BYTES);
+
+        assertEquals(json(faces), json(restarted.get(key("a"))));
+        assertNotNull(restarted.get(key("a")));
+        assertNull(restarted.get(key("b")));
+
+        assertEquals(1, restarted.getDiskHits());
+        assertEquals(1, restarted.getMemoryHits());
+
+        restarted.clear();
+        assertEquals(0, directory.listFiles().length);
+        assertNull(restarted.get(key("a")));
+    }
+
+    @Test
+    public void get_readsDiskOnlyOnTheDiskExecutor() throws Exception {
+        File directory = temporaryFolder.newFolder();
+        List<DetectedFace> faces = SyntheticFaces.create(1, 3);
+
+        List<Runnable> diskTasks = new ArrayList<>();
+        FaceResultCache cache = new FaceResultCache(FaceResultCache.DEFAULT_MAX_BYTES, diskTasks::add);
+
+        List<List<DetectedFace>> lookups = new ArrayList<>();
+
+        // With the disk tier off, misses are passed on the calling thread.
+        cache.get(key("a"), lookups::add);
+        assertEquals(1, lookups.size());
+        assertNull(lookups.get(0));
+        assertTrue(diskTasks.isEmpty());
+
+        // Memory hits are passed on the calling thread too.
+        cache.put(key("a"), faces);
+        cache.get(key("a"), lookups::add);
+        assertSame(faces, lookups.get(1));
+
+        cache.configure(FaceResultCache.DEFAULT_MAX_BYTES, directory, FaceResultCache.DEFAULT_MAX_DISK_BYTES);
+        cache.get(key("b"), lookups::add);
+        assertEquals(2, lookups.size());
+
+        // The write of "a" and the read of "b".
+        assertEquals(2, diskTasks.size());
+        diskTasks.get(1).run();
+        assertEquals(3, lookups.size());
+        assertNull(lookups.get(2));
+
+        assertEquals(1, cache.getMemoryHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void configure_trimsDiskToMaxDiskBytes() throws Exception {
+        File directory = temporaryFolder.newFolder();
+        List<DetectedFace> faces = SyntheticFaces.create(1, 5);
+
+        FaceResultCache cache = new FaceResultCache(FaceResultCache.DEFAULT_MAX_BYTES, Runnable::run);
+        cache.configure(FaceResultCache.DEFAULT_MAX_BYTES, directory, FaceResultCache.DEFAULT_MAX_DISK_BYTES);
+        for (int i = 0; i < 10; i++) {
+            cache.put(key("image" + i), faces);
+        }
+        assertEquals(10, directory.listFiles().length);
+
+        long fileLength = directory.listFiles()[0].length();
+        cache.configure(FaceResultCache.DEFAULT_MAX_BYTES, directory, fileLength * 4);
+
+        assertEquals(4, directory.listFiles().length);
+        assertEquals(fileLength * 4, cache.toJSONObject().getLong("diskBytes"));
+    }
+}
@@ -0,0 +1,85 @@
+package com.ionicframework.capacitor;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests of the face tracker, running on the development machine (host).
+ */
+public class FaceTrackerTest {
+    private static final long FRAME_NANOS = 33_333_333L;
+
+    private static DetectedFace face(int trackingId, int left, int top) {
+        DetectedFace face = new DetectedFace();
+        face.trackingId = trackingId;
+        face.left = left;
+        face.top = top;
+        face.right = left + 100;
+        face.bottom = top + 100;
+        return face;
+    }
+
+    @Test
+    public void update_smoothsJitter() {
+        FaceTracker tracker = new FaceTracker(TrackingOptions.DEFAULT);
+
+        Random random = new Random(42);
+
+        double rawError = 0;
+        double smoothedError = 0;
+
+        // A still face with +-5 px of detector noise.
+        for (int frame = 0; frame < 60; frame++) {
+            int left = 200 + random.nextInt(11) - 5;
+
+            DetectedFace face = face(1, left, 100);
+            tracker.update(Collections.singletonList(face), frame * FRAME_NANOS);
+
+            if (frame >= 10) {
+                rawError += Math.abs(left - 200);
+                smoothedError += Math.abs(face.left - 200);
+            }
+        }
+
+        assertTrue(smoothedError < rawError / 2);
+    }
+
+    @Test
+    public void update_returnsOnlyChangesInDeltaMode() {
+        FaceTracker tracker = new FaceTracker(new TrackingOptions(100, false, 1, 0, 1, true, 2));
+
+        FaceTracker.Update update = tracker.update(Arrays.asList(face(1, 0, 0), face(2, 300, 0)), 0);
+        assertEquals(2, update.faces.size());
+
+        // Face 1 moved by 1 px, face 2 by 10 px.
+        update = tracker.update(Arrays.asList(face(1, 1, 0), face(2, 310, 0)), FRAME_NANOS);
+        assertEquals(1, update.faces.size());
+        assertEquals(2, update.faces.get(0).trackingId);
+        assertTrue(update.removed.isEmpty());
+
+        // Face 2 is no longer seen, and evicted once the TTL passed.
+        List<DetectedFace> faces = Collections.singletonList(face(1, 1, 0));
+        assertTrue(tracker.update(faces, 2 * FRAME_NANOS).removed.isEmpty());
+        update = tracker.update(faces, 200_000_000L);
+        assertTrue(update.faces.isEmpty());
+        assertEquals(Collections.singletonList(2), update.removed);
+        assertEquals(1, tracker.size());
+    }
+
+    @Test
+    public void update_returnsUntrackedFaces() {
+        FaceTracker tracker = new FaceTracker(new TrackingOptions(100, true, 1, 0, 1, true, 2));
+
+        DetectedFace face = face(DetectedFace.INVALID_ID, 10, 10);
+
+        assertEquals(1, tracker.update(Collections.singletonList(face), 0).faces.size());
+        assertEquals(1, tracker.update(Collections.singletonList(face), FRAME_NANOS).faces.size());
+        assertEquals(0, tracker.size());
+    }
+}
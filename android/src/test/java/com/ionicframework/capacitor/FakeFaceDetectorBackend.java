@@ -0,0 +1,125 @@
+package com.ionicframework.capacitor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+// A deterministic backend emitting synthetic faces, so that the detection path runs (and can be measured) on a plain JVM.
+// The faces of an image only depend on its seed, and respect the detector config, the transform and the projection like the Firebase backend.
+final class FakeFaceDetectorBackend implements FaceDetectorBackend<FakeFaceDetectorBackend.Image> {
+    static final class Image {
+        final int faceCount;
+        final long seed;
+
+        Image(int faceCount, long seed) {
+            this.faceCount = faceCount;
+            this.seed = seed;
+        }
+    }
+
+    // The simulated inference time of every detection.
+    private final long latencyNanos;
+
+    // The number of acquired but not yet released detectors.
+    final AtomicInteger acquired = new AtomicInteger();
+    final AtomicInteger detections = new AtomicInteger();
+
+    FakeFaceDetectorBackend(long latencyNanos) {
+        this.latencyNanos = latencyNanos;
+    }
+
+    @Override
+    public Detector<Image> acquire(final FaceDetectorConfig config) {
+        acquired.incrementAndGet();
+
+        return new Detector<Image>() {
+            @Override
+            public void detect(Image image, ImageTransform transform, FieldProjection projection, Executor executor, Callback callback) {
+                if (image == null) {
+                    throw new IllegalArgumentException("No image");
+                }
+
+                executor.execute(() -> {
+                    if (latencyNanos > 0) {
+                        LockSupport.parkNanos(latencyNanos);
+                    }
+
+                    detections.incrementAndGet();
+
+                    List<DetectedFace> faces = new ArrayList<>(image.faceCount);
+                    for (DetectedFace face : SyntheticFaces.create(image.faceCount, image.seed)) {
+                        faces.add(copy(face, config, transform, projection));
+                    }
+
+                    callback.onSuccess(faces);
+                });
+            }
+
+            @Override
+            public void release() {
+                acquired.decrementAndGet();
+            }
+        };
+    }
+
+    // Copies the attributes which the detector would have computed and the projection requests, like FaceConverter.
+    private static DetectedFace copy(DetectedFace face, FaceDetectorConfig config, ImageTransform transform, FieldProjection projection) {
+        DetectedFace copy = new DetectedFace();
+
+        if (projection.bounds) {
+            copy.left = transform.mapX(face.left);
+            copy.top = transform.mapY(face.top);
+            copy.right = transform.mapX(face.right);
+            copy.bottom = transform.mapY(face.bottom);
+        }
+
+        if (config.landmarkMode == FaceDetectorConfig.ALL_LANDMARKS) {
+            for (DetectedFace.Landmark landmark : face.landmarks) {
+                if (projection.hasLandmark(landmark.type)) {
+                    copy.landmarks.add(new DetectedFace.Landmark(landmark.type, transform.mapX(landmark.x), transform.mapY(landmark.y), landmark.z));
+                }
+            }
+        }
+
+        if (config.contourMode == FaceDetectorConfig.ALL_CONTOURS) {
+            for (DetectedFace.Contour contour : face.contours) {
+                if (projection.hasContour(contour.type)) {
+                    float[] points = contour.points.clone();
+                    for (int i = 0; i < points.length; i += 3) {
+                        points[i] = transform.mapX(points[i]);
+                        points[i + 1] = transform.mapY(points[i + 1]);
+                    }
+
+                    copy.contours.add(new DetectedFace.Contour(contour.type, points));
+                }
+            }
+        }
+
+        if (projection.headEulerAngleY) {
+            copy.headEulerAngleY = face.headEulerAngleY;
+        }
+        if (projection.headEulerAngleZ) {
+            copy.headEulerAngleZ = face.headEulerAngleZ;
+        }
+
+        if (config.classificationMode == FaceDetectorConfig.ALL_CLASSIFICATIONS) {
+            if (projection.leftEyeOpenProbability) {
+                copy.leftEyeOpenProbability = face.leftEyeOpenProbability;
+            }
+            if (projection.rightEyeOpenProbability) {
+                copy.rightEyeOpenProbability = face.rightEyeOpenProbability;
+            }
+            if (projection.smilingProbability) {
+                copy.smilingProbability = face.smilingProbability;
+            }
+        }
+
+        if (config.enableTracking && projection.trackingId) {
+            copy.trackingId = face.trackingId;
+        }
+
+        return copy;
+    }
+}
@@ -0,0 +1,58 @@
+package com.ionicframework.capacitor;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests of the "fields" projection, running on the development machine (host).
+ */
+public class FieldProjectionTest {
+    @Test
+    public void fromJSONArray_cachesCompiledProjections() throws Exception {
+        FieldProjection projection = FieldProjection.fromJSONArray(new JSONArray("[\"bounds\", \"trackingId\"]"));
+
+        assertSame(projection, FieldProjection.fromJSONArray(new JSONArray("[\"bounds\", \"trackingId\"]")));
+        assertSame(FieldProjection.ALL, FieldProjection.fromJSONArray(null));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void compile_rejectsUnknownFields() throws Exception {
+        FieldProjection.compile("contours.CHIN");
+    }
+
+    @Test
+    public void apply_turnsOffUnrequestedModes() throws Exception {
+        FaceDetectorConfig config = new FaceDetectorConfig(
+                FaceDetectorConfig.ACCURATE,
+                FaceDetectorConfig.ALL_LANDMARKS,
+                FaceDetectorConfig.ALL_CLASSIFICATIONS,
+                FaceDetectorConfig.ALL_CONTOURS,
+                0.2f,
+                true
+        );
+
+        FaceDetectorConfig projected = FieldProjection.compile("bounds", "contours.FACE").apply(config);
+
+        assertEquals(FaceDetectorConfig.NO_LANDMARKS, projected.landmarkMode);
+        assertEquals(FaceDetectorConfig.NO_CLASSIFICATIONS, projected.classificationMode);
+        assertEquals(FaceDetectorConfig.ALL_CONTOURS, projected.contourMode);
+        assertEquals(config.performanceMode, projected.performanceMode);
+        assertTrue(projected.enableTracking);
+
+        assertEquals(config, FieldProjection.ALL.apply(config));
+    }
+
+    @Test
+    public void toJSONObject_serializesOnlyRequestedFields() throws Exception {
+        DetectedFace face = SyntheticFaces.create(1, 7).get(0);
+
+        JSONObject faceObject = FaceSerializer.toJSONObject(face, FieldProjection.compile("bounds", "trackingId"));
+
+        assertEquals(2, faceObject.length());
+        assertEquals(4, faceObject.getJSONObject("bounds").length());
+        assertEquals(face.trackingId, faceObject.getInt("trackingId"));
+    }
+}
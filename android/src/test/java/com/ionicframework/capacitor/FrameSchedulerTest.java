@@ -0,0 +1,176 @@
+package com.ionicframework.capacitor;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests of the frame scheduler, running against a fake detector on the development machine (host).
+ */
+public class FrameSchedulerTest {
+    // A fake detector taking 50 ms per frame, i.e. three times the frame interval of a 60 fps source.
+    private static final long DETECTION_MS = 50;
+    private static final long FRAME_INTERVAL_MS = 16;
+    private static final int FRAMES = 90;
+
+    private final ScheduledExecutorService detector = Executors.newSingleThreadScheduledExecutor();
+
+    @After
+    public void tearDown() throws Exception {
+        detector.shutdownNow();
+    }
+
+    @Test
+    public void dropNewest_rejectsFramesAboveTheQueueLimit() throws Exception {
+        List<Integer> processed = new ArrayList<>();
+        List<Integer> dropped = new ArrayList<>();
+        List<Runnable> pending = new ArrayList<>();
+
+        FrameScheduler<Integer> scheduler = new FrameScheduler<>(
+                Runnable::run,
+                (frame, queueWaitNanos, done) -> {
+                    processed.add(frame);
+                    pending.add(done);
+                },
+                dropped::add
+        );
+        scheduler.configure(1, 1, FrameScheduler.Policy.DROP_NEWEST);
+
+        for (int frame = 0; frame < 4; frame++) {
+            scheduler.submit(frame);
+        }
+
+        assertEquals(Collections.singletonList(0), processed);
+        assertEquals(Arrays.asList(2, 3), dropped);
+
+        pending.get(0).run();
+
+        assertEquals(Arrays.asList(0, 1), processed);
+        assertEquals(0, scheduler.getQueued());
+    }
+
+    @Test
+    public void dropOldest_keepsTheLatestFrame() throws Exception {
+        List<Integer> processed = new ArrayList<>();
+        List<Integer> dropped = new ArrayList<>();
+        List<Runnable> pending = new ArrayList<>();
+
+        FrameScheduler<Integer> scheduler = new FrameScheduler<>(
+                Runnable::run,
+                (frame, queueWaitNanos, done) -> {
+                    processed.add(frame);
+                    pending.add(done);
+                },
+                dropped::add
+        );
+        scheduler.configure(1, 1, FrameScheduler.Policy.DROP_OLDEST);
+
+        for (int frame = 0; frame < 4; frame++) {
+            scheduler.submit(frame);
+        }
+
+        assertEquals(Arrays.asList(1, 2), dropped);
+
+        // Reporting completion twice must not free a second slot.
+        pending.get(0).run();
+        pending.get(0).run();
+
+        assertEquals(Arrays.asList(0, 3), processed);
+        assertEquals(1, scheduler.getInFlight());
+    }
+
+    @Test
+    public void remove_dropsOnlyWaitingFrames() throws Exception {
+        List<String> processed = new ArrayList<>();
+        List<Runnable> pending = new ArrayList<>();
+
+        FrameScheduler<String> scheduler = new FrameScheduler<>(
+                Runnable::run,
+                (frame, queueWaitNanos, done) -> {
+                    processed.add(frame);
+                    pending.add(done);
+                },
+                (frame) -> fail("Dropped " + frame)
+        );
+        scheduler.configure(1, 2, FrameScheduler.Policy.QUEUE);
+
+        String first = "first";
+        String second = "second";
+        String third = "third";
+
+        scheduler.submit(first);
+        scheduler.submit(second);
+        scheduler.submit(third);
+
+        // The first frame is already being processed.
+        assertFalse(scheduler.remove(first));
+        assertTrue(scheduler.remove(second));
+        assertFalse(scheduler.remove(second));
+
+        pending.get(0).run();
+
+        assertEquals(Arrays.asList(first, third), processed);
+        assertEquals(0, scheduler.getQueued());
+    }
+
+    @Test
+    public void dropOldest_boundsQueueWaitAt60fps() throws Exception {
+        long maxQueueWaitMs = run(FrameScheduler.Policy.DROP_OLDEST);
+
+        // A frame waits for at most the frame in flight.
+        assertTrue("max queue wait " + maxQueueWaitMs + " ms", maxQueueWaitMs < 3 * DETECTION_MS);
+    }
+
+    @Test
+    public void queue_growsQueueWaitAt60fps() throws Exception {
+        long maxQueueWaitMs = run(FrameScheduler.Policy.QUEUE);
+
+        // Without dropping, the backlog keeps growing for as long as frames arrive.
+        assertTrue("max queue wait " + maxQueueWaitMs + " ms", maxQueueWaitMs > 10 * DETECTION_MS);
+    }
+
+    // Feeds a synthetic 60 fps source into the scheduler and returns the longest queue wait of a processed frame.
+    private long run(FrameScheduler.Policy policy) throws Exception {
+        final CountDownLatch finished = new CountDownLatch(FRAMES);
+        final AtomicLong maxQueueWaitNanos = new AtomicLong();
+
+        FrameScheduler<Integer> scheduler = new FrameScheduler<>(
+                Runnable::run,
+                (frame, queueWaitNanos, done) -> {
+                    maxQueueWaitNanos.accumulateAndGet(queueWaitNanos, Math::max);
+
+                    detector.schedule(
+                            () -> {
+                                done.run();
+                                finished.countDown();
+                            },
+                            DETECTION_MS,
+                            TimeUnit.MILLISECONDS
+                    );
+                },
+                (frame) -> finished.countDown()
+        );
+        scheduler.configure(1, 1, policy);
+
+        for (int frame = 0; frame < FRAMES; frame++) {
+            scheduler.submit(frame);
+
+            Thread.sleep(FRAME_INTERVAL_MS);
+        }
+
+        assertTrue(finished.await(FRAMES * DETECTION_MS * 2, TimeUnit.MILLISECONDS));
+
+        return TimeUnit.NANOSECONDS.toMillis(maxQueueWaitNanos.get());
+    }
+}
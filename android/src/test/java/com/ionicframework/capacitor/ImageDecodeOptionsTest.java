@@ -0,0 +1,40 @@
+package com.ionicframework.capacitor;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests of the decoded image size, running on the development machine (host).
+ */
+public class ImageDecodeOptionsTest {
+    @Test
+    public void sampleAndScale_neverExceedMaxDimension() {
+        int[][] sizes = {{4000, 3000}, {3000, 4000}, {1280, 720}, {641, 480}, {640, 480}, {100, 50}, {5000, 1}};
+
+        for (int[] size : sizes) {
+            for (int maxDimension : new int[]{320, 480, 640, 1000}) {
+                int sampleSize = ImageDecodeOptions.sampleSize(size[0], size[1], maxDimension);
+
+                // Sampled dimensions are rounded up by the decoder.
+                int sampledWidth = (size[0] + sampleSize - 1) / sampleSize;
+                int sampledHeight = (size[1] + sampleSize - 1) / sampleSize;
+
+                float scale = ImageDecodeOptions.scale(sampledWidth, sampledHeight, maxDimension);
+                int width = ImageDecodeOptions.scaled(sampledWidth, scale);
+                int height = ImageDecodeOptions.scaled(sampledHeight, scale);
+
+                int expected = Math.min(Math.max(size[0], size[1]), maxDimension);
+                assertEquals(expected, Math.max(width, height));
+                assertTrue(Math.min(width, height) >= 1);
+            }
+        }
+    }
+
+    @Test
+    public void scale_keepsImagesWhichFit() {
+        assertEquals(1, ImageDecodeOptions.scale(640, 480, 640), 0);
+        assertEquals(1, ImageDecodeOptions.scale(4000, 3000, 0), 0);
+        assertEquals(0.64f, ImageDecodeOptions.scale(1000, 750, 640), 1e-6);
+    }
+}
@@ -0,0 +1,90 @@
+package com.ionicframework.capacitor;
+
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests of the metrics histograms, running on the development machine (host).
+ */
+public class LatencyHistogramTest {
+    @Test
+    public void bucket_isContinuous() {
+        for (int bucket = 0; bucket < 400; bucket++) {
+            long lowerBound = LatencyHistogram.lowerBound(bucket);
+
+            assertEquals(bucket, LatencyHistogram.bucket(lowerBound));
+            assertEquals(bucket + 1, LatencyHistogram.bucket(lowerBound + LatencyHistogram.width(bucket)));
+        }
+
+        assertTrue(LatencyHistogram.bucket(Long.MAX_VALUE) >= 0);
+    }
+
+    @Test
+    public void getPercentile_isWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        // 1 to 100 ms in nanoseconds.
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * 1_000_000L);
+        }
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(100_000_000L, histogram.getMax());
+        assertEquals(50_500_000.0, histogram.getMean(), 1);
+
+        assertEquals(50_000_000L, histogram.getPercentile(50), 50_000_000L / 8);
+        assertEquals(95_000_000L, histogram.getPercentile(95), 95_000_000L / 8);
+        assertEquals(99_000_000L, histogram.getPercentile(99), 99_000_000L / 8);
+        assertTrue(histogram.getPercentile(100) <= histogram.getMax());
+
+        histogram.reset();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(50));
+    }
+
+    @Test
+    public void record_countsConcurrentValues() throws Exception {
+        final LatencyHistogram histogram = new LatencyHistogram();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    histogram.record(i);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(40_000, histogram.getCount());
+        assertEquals(9_999, histogram.getMax());
+    }
+
+    @Test
+    public void metrics_reportStagesInMilliseconds() throws Exception {
+        DetectionMetrics metrics = new DetectionMetrics();
+
+        DetectionTimings timings = new DetectionTimings();
+        timings.inferenceNanos = 20_000_000L;
+        timings.totalNanos = 25_000_000L;
+        timings.bitmapBytes = 640 * 480 * 4;
+        metrics.record(timings);
+
+        JSONObject object = metrics.toJSONObject();
+
+        assertEquals(1, object.getLong("count"));
+        assertEquals(20.0, object.getJSONObject("stages").getJSONObject("inference").getDouble("maxMs"), 0.001);
+        assertEquals(0, object.getJSONObject("stages").getJSONObject("base64Decode").getLong("count"));
+        assertEquals(0, object.getJSONObject("sizes").getJSONObject("resultBytes").getLong("count"));
+    }
+}
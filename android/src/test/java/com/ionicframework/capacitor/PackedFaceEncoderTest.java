@@ -0,0 +1,92 @@
+package com.ionicframework.capacitor;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests of the packed result format, running on the development machine (host).
+ */
+public class PackedFaceEncoderTest {
+    @Test
+    public void base64_matchesTheJavaEncoder() throws Exception {
+        for (int length = 0; length < 8; length++) {
+            byte[] data = new byte[length];
+            for (int i = 0; i < length; i++) {
+                data[i] = (byte) (i * 97 - 13);
+            }
+
+            assertEquals(Base64.getEncoder().encodeToString(data), Base64Codec.encode(data, 0, length));
+        }
+    }
+
+    @Test
+    public void packedPoints_matchTheJsonPoints() throws Exception {
+        DetectedFace face = SyntheticFaces.create(1, 42).get(0);
+
+        JSONObject jsonObject = FaceSerializer.toJSONObject(face);
+        JSONObject packedObject = PackedFaceEncoder.toJSONObject(face);
+
+        FloatBuffer points = ByteBuffer.wrap(Base64.getDecoder().decode(packedObject.getString("points")))
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .asFloatBuffer();
+
+        // ALL_POINTS is not repeated.
+        assertEquals(10 + 131, points.remaining() / 3);
+
+        JSONArray landmarks = jsonObject.getJSONArray("landmarks");
+        JSONArray landmarkIndex = packedObject.getJSONArray("landmarkIndex");
+        for (int i = 0; i < landmarks.length(); i++) {
+            JSONObject landmark = landmarks.getJSONObject(i);
+            int point = landmarkIndex.getInt(i * 2 + 1);
+
+            assertEquals(landmark.getInt("type"), landmarkIndex.getInt(i * 2));
+            assertEquals(landmark.getJSONObject("position").getDouble("x"), points.get(point * 3), 0);
+            assertEquals(landmark.getJSONObject("position").getDouble("y"), points.get(point * 3 + 1), 0);
+        }
+
+        // The JSON format starts with ALL_POINTS, the packed format with the first individual contour.
+        JSONArray contours = jsonObject.getJSONArray("contours");
+        JSONArray contourIndex = packedObject.getJSONArray("contourIndex");
+        assertEquals(contours.length() - 1, contourIndex.length() / 3);
+        for (int i = 1; i < contours.length(); i++) {
+            JSONObject contour = contours.getJSONObject(i);
+            JSONArray contourPoints = contour.getJSONArray("points");
+            int j = (i - 1) * 3;
+
+            assertEquals(contour.getInt("type"), contourIndex.getInt(j));
+            assertEquals(contourPoints.length(), contourIndex.getInt(j + 2));
+
+            int point = contourIndex.getInt(j + 1);
+            for (int k = 0; k < contourPoints.length(); k++) {
+                assertEquals(contourPoints.getJSONObject(k).getDouble("x"), points.get((point + k) * 3), 0);
+                assertEquals(contourPoints.getJSONObject(k).getDouble("y"), points.get((point + k) * 3 + 1), 0);
+            }
+        }
+
+        assertEquals(jsonObject.getJSONObject("bounds").toString(), packedObject.getJSONObject("bounds").toString());
+        assertEquals(jsonObject.getInt("trackingId"), packedObject.getInt("trackingId"));
+    }
+
+    @Test
+    public void packedPayload_isLessThanHalfOfTheJsonPayload() throws Exception {
+        for (int faceCount : new int[]{1, 5, 20}) {
+            List<DetectedFace> faces = SyntheticFaces.create(faceCount, faceCount);
+
+            // Result objects are serialized to a string when crossing the bridge, so the string length is the payload size.
+            // The encode times are measured by FaceSerializationBenchmark of the benchmark module.
+            int jsonSize = FaceSerializer.toJSONArray(faces).toString().length();
+            int packedSize = PackedFaceEncoder.toJSONArray(faces).toString().length();
+
+            assertTrue(packedSize < jsonSize / 2);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.ionicframework.capacitor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Deterministic faces with the landmark and contour counts of the on-device face model.
+final class SyntheticFaces {
+    static final int[] LANDMARK_TYPES = {1, 7, 3, 9, 4, 10, 6, 0, 5, 11};
+
+    // Contour types from FACE to NOSE_BOTTOM and their number of points.
+    static final int[][] CONTOURS = {
+            {2, 36},
+            {3, 5}, {4, 5}, {5, 5}, {6, 5},
+            {7, 16}, {8, 16},
+            {9, 11}, {10, 9}, {11, 9}, {12, 9},
+            {13, 2}, {14, 3},
+    };
+
+    private SyntheticFaces() {
+    }
+
+    static List<DetectedFace> create(int count, long seed) {
+        Random random = new Random(seed);
+        List<DetectedFace> faces = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            faces.add(create(random, i));
+        }
+
+        return faces;
+    }
+
+    static DetectedFace create(Random random, int trackingId) {
+        DetectedFace face = new DetectedFace();
+
+        face.left = random.nextInt(2000);
+        face.top = random.nextInt(2000);
+        face.right = face.left + 100 + random.nextInt(400);
+        face.bottom = face.top + 100 + random.nextInt(400);
+
+        for (int type : LANDMARK_TYPES) {
+            face.landmarks.add(new DetectedFace.Landmark(type, coordinate(random, face.left, face.right), coordinate(random, face.top, face.bottom), Float.NaN));
+        }
+
+        List<Float> allPoints = new ArrayList<>();
+        List<DetectedFace.Contour> contours = new ArrayList<>();
+
+        for (int[] contour : CONTOURS) {
+            float[] points = new float[contour[1] * 3];
+
+            for (int i = 0; i < points.length; i += 3) {
+                points[i] = coordinate(random, face.left, face.right);
+                points[i + 1] = coordinate(random, face.top, face.bottom);
+                points[i + 2] = Float.NaN;
+            }
+            for (float value : points) {
+                allPoints.add(value);
+            }
+
+            contours.add(new DetectedFace.Contour(contour[0], points));
+        }
+
+        // ALL_POINTS comes first and repeats the points of all other contours.
+        float[] points = new float[allPoints.size()];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = allPoints.get(i);
+        }
+        face.contours.add(new DetectedFace.Contour(PackedFaceEncoder.ALL_POINTS, points));
+        face.contours.addAll(contours);
+
+        face.headEulerAngleY = random.nextFloat() * 90 - 45;
+        face.headEulerAngleZ = random.nextFloat() * 90 - 45;
+
+        face.leftEyeOpenProbability = random.nextFloat();
+        face.rightEyeOpenProbability = random.nextFloat();
+        face.smilingProbability = random.nextFloat();
+
+        face.trackingId = trackingId;
+
+        return face;
+    }
+
+    private static float coordinate(Random random, int from, int to) {
+        return from + random.nextFloat() * (to - from);
+    }
+}
@@ -1,3 +1,5 @@
+import { PluginListenerHandle } from "@capacitor/core";
+
 declare module "@capacitor/core" {
   interface PluginRegistry {
     FirebaseMLVision: FirebaseMLVisionPlugin;
@@ -101,19 +103,520 @@ export interface FirebaseVisionFace {
   trackingId?: number,
 }
 
+// A face in the "packed" result format.
+// The landmark and contour points are packed into one Float32 array of consecutive x, y, z values (z is NaN if unknown).
+// Read them with new Float32Array(Uint8Array.from(atob(points), c => c.charCodeAt(0)).buffer).
+export interface FirebaseVisionPackedFace {
+  // Returns the axis-aligned bounding rectangle of the detected face.
+  bounds: Rect,
+  // The Base64 encoded little-endian Float32 array of all points.
+  points?: string,
+  // Pairs of [LandmarkType, point index] into the points.
+  landmarkIndex?: number[],
+  // Triples of [ContourType, first point index, point count] into the points.
+  // ContourType.ALL_POINTS is not included, as it only repeats the other contours.
+  contourIndex?: number[],
+  headEulerAngleY: number,
+  headEulerAngleZ: number,
+  leftEyeOpenProbability?: number,
+  rightEyeOpenProbability?: number,
+  smilingProbability?: number,
+  trackingId?: number,
+}
+
+// An attribute of a detected face, one of "bounds", "landmarks", "landmarks.<LandmarkType>", "contours", "contours.<ContourType>",
+// "headEulerAngleY", "headEulerAngleZ", "leftEyeOpenProbability", "rightEyeOpenProbability", "smilingProbability" or "trackingId".
+// "landmarks" and "contours" select all landmarks or contours, e.g. "contours.FACE" a single one.
+// Detector modes producing attributes which are not requested are turned off, and bounds are reduced to x, y, width and height.
+export type FirebaseVisionFaceField = string;
+
+// The format of the detected faces.
+// "json" returns an object per point, "packed" returns the points of a face as one packed Float32 array.
+export type FirebaseVisionResultFormat = "json" | "packed";
+
 export interface FirebaseVisionFaceResult {
   // Returns a list of detected FirebaseVisionFaces.
+  // Faces are of type FirebaseVisionPackedFace if the "packed" result format was requested.
   faces: FirebaseVisionFace[],
+  // The time in milliseconds the call waited for the frame scheduler before it was processed.
+  queueWaitMs?: number,
+  // The durations of the stages of the call, if includeTimings was set.
+  timings?: FirebaseVisionTimings,
+  // The trackingIds of the faces which disappeared, if tracking is enabled.
+  removed?: number[],
+  // The settings the image was detected with, if adaptive mode is enabled.
+  adaptive?: FirebaseVisionAdaptiveSettings,
+  // Whether the faces were served from the result cache.
+  cached?: boolean,
+}
+
+// Options of the adaptive mode, which degrades the detector settings while the detections are slower than the budget, and restores them once there is headroom.
+// The settings step down from the requested ones by dropping contours, then ACCURATE falls back to FAST, then minFaceSize and the input downscale are raised.
+export interface FirebaseVisionAdaptiveOptions {
+  // The latency in milliseconds of a detection to stay below, defaults to 100.
+  targetLatencyMs?: number,
+  // The frame rate the detections have to keep up with, defaults to none.
+  targetFps?: number,
+}
+
+// The effective settings of a detection in adaptive mode.
+export interface FirebaseVisionAdaptiveSettings {
+  // 0 for the requested settings, up to 6 for the most degraded ones.
+  level: number,
+  performanceMode: PerformanceMode,
+  landmarkMode: LandmarkMode,
+  contourMode: ContourMode,
+  minFaceSize: number,
+  // The maximum dimension the image was decoded at, 0 for full resolution. Camera frames are never downscaled.
+  maxDimension: number,
+  // The moving average of the latency the level was chosen by.
+  averageLatencyMs: number,
+}
+
+// Options of the native face tracker, which relates the faces of consecutive frames by their trackingId.
+// Tracking is enabled on the face detector, and trackingId is always returned.
+export interface FirebaseVisionTrackingOptions {
+  // How long a face is remembered after it was last seen, defaults to 1000.
+  // Faces not seen for this long are reported in "removed".
+  ttlMs?: number,
+  // Smooths bounds, Euler angles and landmarks with a One Euro filter, defaults to true.
+  // http://cristal.univ-lille.fr/~casiez/1euro/
+  smoothing?: boolean,
+  // The cutoff frequency in Hz at zero speed, lower values remove more jitter, defaults to 1.
+  minCutoff?: number,
+  // How fast the cutoff frequency rises with the speed, higher values reduce the lag, defaults to 0.007.
+  beta?: number,
+  // The cutoff frequency in Hz of the speed, defaults to 1.
+  derivateCutoff?: number,
+  // Returns only the faces which appeared or moved since they were last returned, defaults to false.
+  // Faces without trackingId are always returned, stream frames without changes are not sent.
+  delta?: boolean,
+  // The distance in pixels (or degrees for the Euler angles) a face has to move to be returned again, defaults to 2.
+  deltaThreshold?: number,
+}
+
+// The durations in milliseconds of the stages of a detectInImage call.
+export interface FirebaseVisionTimings {
+  // Whether the faces were served from the result cache, which skips the queue, decoding and detection.
+  cached: boolean,
+  // Hashing the image and looking it up in the result cache, 0 unless the faces were cached.
+  cacheLookupMs: number,
+  // Waiting for the frame scheduler.
+  queueWaitMs: number,
+  // Decoding the Base64 image, 0 for paths and URIs.
+  base64DecodeMs: number,
+  // Decoding the image into a bitmap.
+  bitmapDecodeMs: number,
+  // Getting a cached face detector, or creating one.
+  detectorAcquireMs: number,
+  // Running the face detector.
+  inferenceMs: number,
+  // Converting the faces into the result.
+  serializeMs: number,
+  // From the end of the queue wait until the result was built.
+  totalMs: number,
+  // The memory used by the decoded image.
+  bitmapBytes: number,
+  // The length of the serialized faces.
+  resultBytes: number,
+}
+
+// The distribution of the durations of a stage over all detectInImage calls.
+export interface FirebaseVisionStageMetrics {
+  count: number,
+  meanMs: number,
+  p50Ms: number,
+  p95Ms: number,
+  p99Ms: number,
+  maxMs: number,
+}
+
+// The distribution of a size in bytes over all detectInImage calls.
+export interface FirebaseVisionSizeMetrics {
+  count: number,
+  mean: number,
+  p50: number,
+  p95: number,
+  p99: number,
+  max: number,
+}
+
+// The metrics of all detectInImage calls since the plugin was loaded, or since resetMetrics().
+// Percentiles are accurate to within 12.5%.
+export interface FirebaseVisionMetrics {
+  // The number of successful calls.
+  count: number,
+  // The number of successful calls served from the result cache, which only record the cacheLookup, serialize and total stages.
+  cached: number,
+  // The number of failed calls.
+  failures: number,
+  stages: {
+    cacheLookup: FirebaseVisionStageMetrics,
+    queueWait: FirebaseVisionStageMetrics,
+    base64Decode: FirebaseVisionStageMetrics,
+    bitmapDecode: FirebaseVisionStageMetrics,
+    detectorAcquire: FirebaseVisionStageMetrics,
+    inference: FirebaseVisionStageMetrics,
+    serialize: FirebaseVisionStageMetrics,
+    total: FirebaseVisionStageMetrics,
+  },
+  sizes: {
+    bitmapBytes: FirebaseVisionSizeMetrics,
+    // Sampled from every 16th call, and from every call with includeTimings.
+    resultBytes: FirebaseVisionSizeMetrics,
+  },
+  // The pools of decoded bitmaps and Base64 decode buffers reused across calls, since the plugin was loaded.
+  pools: {
+    bitmaps: FirebaseVisionPoolMetrics,
+    buffers: FirebaseVisionPoolMetrics,
+  },
+  resultCache: FirebaseVisionResultCacheMetrics,
+}
+
+// The metrics of the result cache since the plugin was loaded.
+export interface FirebaseVisionResultCacheMetrics {
+  hits: number,
+  memoryHits: number,
+  diskHits: number,
+  misses: number,
+  hitRate: number,
+  evictions: number,
+  // The number of results in memory.
+  count: number,
+  retainedBytes: number,
+  maxBytes: number,
+  // The size of the files of the disk tier, 0 if it is off.
+  diskBytes: number,
+  maxDiskBytes: number,
+}
+
+export interface FirebaseVisionPoolMetrics {
+  hits: number,
+  misses: number,
+  hitRate: number,
+  // The number of items released to the system, e.g. when it ran low on memory.
+  evictions: number,
+  // The number of idle items retained.
+  count: number,
+  retainedBytes: number,
+  maxBytes: number,
+}
+
+// Decides what happens to calls arriving while the maximum number of calls is in flight.
+// Dropped calls are rejected with the code "FRAME_SKIPPED".
+export type FrameSchedulingPolicy =
+  // Keeps every call, the queue grows without bound.
+  "queue" |
+  // Drops the longest waiting call in favour of the new one.
+  "dropOldest" |
+  // Drops the new call if the queue is full.
+  "dropNewest";
+
+// Controls how an image is decoded before detection.
+// Coordinates in the result always refer to the original image.
+export interface FirebaseVisionImageDecodeOptions {
+  // The maximum width or height of the decoded image, defaults to full resolution.
+  // The image is subsampled by a power of two while decoding, then scaled down to exactly this size if it is still larger.
+  maxDimension?: number,
+  // Restricts the detection to a region of the original image.
+  roi?: {
+    x: number,
+    y: number,
+    width: number,
+    height: number,
+  },
+  // The bitmap configuration to decode into, defaults to "ARGB_8888".
+  // "RGB_565" halves the memory needed for the decoded image.
+  preferredConfig?: "ARGB_8888" | "RGB_565",
+}
+
+export interface FirebaseVisionFaceStreamResult extends FirebaseVisionFaceResult {
+  // The width of the up-right camera frame the coordinates refer to.
+  width: number,
+  // The height of the up-right camera frame the coordinates refer to.
+  height: number,
+  // The rotation in degrees which was applied to the camera frame.
+  rotation: number,
+}
+
+// The result of one image of a detectInImages call, delivered through "batchImageDetected" events.
+export interface FirebaseVisionBatchImageResult {
+  // The id of the batch the image belongs to.
+  batchId: string,
+  // The index of the image in the list of images.
+  index: number,
+  // Returns a list of detected FirebaseVisionFaces, unless the image failed.
+  faces?: FirebaseVisionFace[],
+  // The error message if the image could not be decoded or detected.
+  error?: string,
+}
+
+// The summary of a detectInImages call.
+export interface FirebaseVisionBatchResult {
+  batchId: string,
+  // The number of images in the batch.
+  count: number,
+  succeeded: number,
+  failed: number,
+  // The number of images skipped because the batch was cancelled.
+  cancelled: number,
+  // The time from the start of the batch until its last image completed.
+  durationMs: number,
+  // The number of processed images per second.
+  imagesPerSecond: number,
+  // The average time to decode an image.
+  averageDecodeMs: number,
+  // The average time to detect the faces in an image.
+  averageDetectMs: number,
+}
+
+// The detectors run by a detect call. Every detector is either true for its default options, or an object with its options.
+export interface FirebaseVisionDetectors {
+  face?: boolean | {
+    // The options for the face detector.
+    options?: FirebaseVisionFaceDetectorOptions,
+    // The attributes of the faces to compute and return, defaults to all attributes.
+    fields?: FirebaseVisionFaceField[],
+  },
+  barcode?: boolean | {
+    // The FirebaseVisionBarcode formats to scan for, defaults to all formats. Scanning for fewer formats is faster.
+    // Every entry must be a single FORMAT_* value, FORMAT_ALL_FORMATS (0) scans for all formats.
+    // https://firebase.google.com/docs/reference/android/com/google/firebase/ml/vision/barcode/FirebaseVisionBarcode#FORMAT_ALL_FORMATS
+    formats?: number[],
+  },
+  // Recognizes text with the on-device text recognizer.
+  text?: boolean,
+  label?: boolean | {
+    // The minimum confidence of the returned labels, between 0 and 1, defaults to 0.5.
+    confidenceThreshold?: number,
+  },
+}
+
+// The bounds of a detected object, in coordinates of the original image.
+export interface FirebaseVisionBounds {
+  x: number,
+  y: number,
+  width: number,
+  height: number,
+}
+
+// https://firebase.google.com/docs/reference/android/com/google/firebase/ml/vision/barcode/FirebaseVisionBarcode
+export interface FirebaseVisionBarcode {
+  // The FirebaseVisionBarcode format constant of the barcode.
+  format: number,
+  // The FirebaseVisionBarcode value type constant of the barcode, e.g. for URLs or contact info.
+  valueType: number,
+  // The barcode value as it was encoded in the barcode.
+  rawValue?: string,
+  // The barcode value in a user-friendly format.
+  displayValue?: string,
+  bounds?: FirebaseVisionBounds,
+  // The four corner points of the barcode, clockwise starting with the top-left corner.
+  cornerPoints?: { x: number, y: number }[],
+}
+
+// A block, line or element of recognized text.
+// https://firebase.google.com/docs/reference/android/com/google/firebase/ml/vision/text/FirebaseVisionText
+export interface FirebaseVisionTextElement {
+  text: string,
+  bounds?: FirebaseVisionBounds,
+  // Only set by recognizers computing confidences, the on-device recognizer does not.
+  confidence?: number,
+}
+
+export interface FirebaseVisionText {
+  // All recognized text.
+  text: string,
+  blocks: (FirebaseVisionTextElement & {
+    lines: (FirebaseVisionTextElement & {
+      elements: FirebaseVisionTextElement[],
+    })[],
+  })[],
+}
+
+// https://firebase.google.com/docs/reference/android/com/google/firebase/ml/vision/label/FirebaseVisionImageLabel
+export interface FirebaseVisionImageLabel {
+  // A detected label of the image, e.g. "Dog".
+  text: string,
+  confidence: number,
+  // The Knowledge Graph entity id of the label.
+  entityId?: string,
+}
+
+// The merged results of the detectors of a detect call. A detector which failed has no result, but an entry in errors.
+export interface FirebaseVisionDetectResult {
+  faces?: FirebaseVisionFace[],
+  barcodes?: FirebaseVisionBarcode[],
+  text?: FirebaseVisionText,
+  labels?: FirebaseVisionImageLabel[],
+  // The time to decode the image, the time from starting all detectors until each one completed, and the total time of the call.
+  timings: {
+    decodeMs: number,
+    faceMs?: number,
+    barcodeMs?: number,
+    textMs?: number,
+    labelMs?: number,
+    totalMs: number,
+  },
+  // The error messages of the failed detectors by detector, if any failed. The call is rejected if all of them failed.
+  errors?: {
+    face?: string,
+    barcode?: string,
+    text?: string,
+    label?: string,
+  },
 }
 
 export interface FirebaseMLVisionPlugin {
   // Detects human faces from the supplied image.
   detectInImage(options: {
     // Represents an image object that can be used for both on-device and cloud API detectors.
-    image: string,
+    image?: string,
+    // An absolute file path or a path returned by Capacitor.convertFileSrc().
+    // The image is read natively, so its bytes never pass the bridge, and turned up-right according to its EXIF orientation.
+    path?: string,
+    // A file:// or content:// URI, read like path.
+    uri?: string,
+    // The options for the face detector.
+    options?: FirebaseVisionFaceDetectorOptions,
+    // The format of the detected faces, defaults to "json".
+    resultFormat?: FirebaseVisionResultFormat,
+    // The attributes of the faces to compute and return, defaults to all attributes.
+    fields?: FirebaseVisionFaceField[],
+    // Returns the durations of the stages of this call with the result.
+    includeTimings?: boolean,
+    // Smooths and diffs the faces against the faces of the earlier calls with the same tracking options.
+    tracking?: boolean | FirebaseVisionTrackingOptions,
+    // Adapts the detector settings to the latency of the earlier calls with the same adaptive options.
+    adaptive?: boolean | FirebaseVisionAdaptiveOptions,
+    // Returns the faces of an earlier call with the same image and options from the result cache, defaults to false.
+    // Base64 images are identified by a hash of their content, files by their path, size and modification time.
+    // Content URIs without a modification time and calls with tracking or adaptive mode are never cached.
+    cache?: boolean,
+    // Identifies the call for cancel(). Must be unique among the running calls.
+    requestId?: string,
+    // Rejects the call with the code "DEADLINE_EXCEEDED" if it did not complete within this many milliseconds of being called, defaults to none.
+    // The deadline is checked before decoding, before detecting and before building the result.
+    deadlineMs?: number,
+  } & FirebaseVisionImageDecodeOptions): Promise<FirebaseVisionFaceResult>;
+
+  // Runs several detectors on one image, which is passed and decoded only once.
+  // The detectors run concurrently, and are cached by their options and reused by subsequent calls.
+  detect(options: {
+    // Represents an image object that can be used for both on-device and cloud API detectors.
+    image?: string,
+    // An absolute file path or a path returned by Capacitor.convertFileSrc().
+    path?: string,
+    // A file:// or content:// URI, read like path.
+    uri?: string,
+    detectors: FirebaseVisionDetectors,
+    // The format of the detected faces, defaults to "json".
+    resultFormat?: FirebaseVisionResultFormat,
+  } & FirebaseVisionImageDecodeOptions): Promise<FirebaseVisionDetectResult>;
+
+  // Detects human faces in a list of images with one detector.
+  // Images are decoded in parallel while earlier images are being detected.
+  // The result of every image is delivered through a "batchImageDetected" event as soon as it is available, the call resolves with a summary.
+  detectInImages(options: {
+    // Base64 encoded images, file:// and content:// URIs or paths returned by Capacitor.convertFileSrc().
+    images: string[],
     // The options for the face detector.
     options?: FirebaseVisionFaceDetectorOptions,
-  }): Promise<FirebaseVisionFaceResult>;
+    // The maximum number of images being decoded or waiting for detection at the same time, defaults to 2 and is capped at 8.
+    parallelism?: number,
+    // Identifies the batch in events and for cancelBatch(), defaults to a random id.
+    batchId?: string,
+    // The format of the detected faces, defaults to "json".
+    resultFormat?: FirebaseVisionResultFormat,
+    // The attributes of the faces to compute and return, defaults to all attributes.
+    fields?: FirebaseVisionFaceField[],
+  } & FirebaseVisionImageDecodeOptions): Promise<FirebaseVisionBatchResult>;
+
+  // Cancels a running detectInImages call.
+  // Images not yet started are skipped, the detectInImages call resolves once the images in flight completed.
+  cancelBatch(options: {
+    batchId: string,
+  }): Promise<void>;
+
+  // Cancels a detectInImage call by its requestId, or a detectInImages call by its batchId.
+  // A waiting call is rejected with the code "CANCELLED" right away, a call in flight before its next stage, at the latest before its result is built.
+  // Resolves with cancelled false if no such call is running.
+  cancel(options: {
+    requestId: string,
+  }): Promise<{ cancelled: boolean }>;
+
+  // Forgets all tracked faces of detectInImage calls and of the camera stream.
+  resetTracking(): Promise<void>;
+
+  // Returns the per-stage timings and sizes of all detectInImage calls.
+  getMetrics(): Promise<FirebaseVisionMetrics>;
+
+  // Clears the metrics returned by getMetrics().
+  resetMetrics(): Promise<void>;
+
+  // Configures the result cache of detectInImage calls passing "cache".
+  configureResultCache(options: {
+    // The approximate size of the results kept in memory, defaults to 2 MB.
+    maxBytes?: number,
+    // Keeps the results in the app cache directory as well, so that they survive restarts, defaults to false.
+    disk?: boolean,
+    // The size of the files of the disk tier, defaults to 16 MB.
+    maxDiskBytes?: number,
+  }): Promise<void>;
+
+  // Removes all results from memory and disk.
+  clearResultCache(): Promise<void>;
+
+  // Configures how many detectInImage calls are processed concurrently, and what happens to the calls above that limit.
+  configureScheduler(options: {
+    // The maximum number of calls decoded or detected at the same time, defaults to 2.
+    maxInFlight?: number,
+    // The maximum number of waiting calls for the "dropOldest" and "dropNewest" policies, defaults to 1.
+    maxQueued?: number,
+    // Defaults to "queue".
+    policy?: FrameSchedulingPolicy,
+    // The number of background threads decoding the images and building the results, defaults to 2.
+    threads?: number,
+  }): Promise<void>;
+
+  // Loads the face detector for the given options ahead of the first detection.
+  // Detectors are cached by their options and reused by subsequent calls.
+  warmUp(options: {
+    // The options for the face detector.
+    options?: FirebaseVisionFaceDetectorOptions,
+  }): Promise<void>;
+
+  // Closes all cached detectors and releases their model resources.
+  // Detectors with pending detections are closed as soon as these complete.
+  releaseDetectors(): Promise<void>;
+
+  // Starts detecting human faces in the frames of the device's camera.
+  // Results are delivered through "faceDetected" events, without encoding the frames for the bridge.
+  startFaceStream(options: {
+    // The options for the face detector.
+    // Enable tracking to maintain a consistent ID for each face across frames.
+    options?: FirebaseVisionFaceDetectorOptions,
+    // The camera to use, defaults to "front".
+    lensFacing?: "front" | "back",
+    // The target resolution of the camera frames, defaults to 640x480.
+    width?: number,
+    height?: number,
+    // The format of the detected faces, defaults to "json".
+    resultFormat?: FirebaseVisionResultFormat,
+    // The attributes of the faces to compute and return, defaults to all attributes.
+    fields?: FirebaseVisionFaceField[],
+    // Smooths and diffs the faces of consecutive frames.
+    tracking?: boolean | FirebaseVisionTrackingOptions,
+    // Adapts the detector settings to the latency of the frames.
+    adaptive?: boolean | FirebaseVisionAdaptiveOptions,
+  }): Promise<void>;
+
+  // Stops the camera stream started by startFaceStream().
+  stopFaceStream(): Promise<void>;
+
+  addListener(eventName: "faceDetected", listenerFunc: (result: FirebaseVisionFaceStreamResult) => void): PluginListenerHandle;
+  addListener(eventName: "batchImageDetected", listenerFunc: (result: FirebaseVisionBatchImageResult) => void): PluginListenerHandle;
+  addListener(eventName: "faceDetectionError", listenerFunc: (error: { message: string }) => void): PluginListenerHandle;
 }
 
 // Extended option for controlling additional accuracy / speed trade-offs in performing face detection.
@@ -2,8 +2,18 @@ import { WebPlugin } from '@capacitor/core';
 import { FirebaseMLVisionPlugin } from './definitions';
 
 import {
+  FirebaseVisionAdaptiveOptions,
+  FirebaseVisionBatchResult,
+  FirebaseVisionDetectResult,
+  FirebaseVisionDetectors,
   FirebaseVisionFaceDetectorOptions,
+  FirebaseVisionFaceField,
   FirebaseVisionFaceResult,
+  FirebaseVisionImageDecodeOptions,
+  FirebaseVisionMetrics,
+  FirebaseVisionResultFormat,
+  FirebaseVisionTrackingOptions,
+  FrameSchedulingPolicy,
 } from './definitions';
 
 export class FirebaseMLVisionWeb extends WebPlugin implements FirebaseMLVisionPlugin {
@@ -17,13 +27,165 @@ export class FirebaseMLVisionWeb extends WebPlugin implements FirebaseMLVisionPl
   // Detects human faces from the supplied image.
   async detectInImage(options: {
     // Represents an image object that can be used for both on-device and cloud API detectors.
-    image: string,
+    image?: string,
+    // An absolute file path or a path returned by Capacitor.convertFileSrc().
+    // The image is read natively, so its bytes never pass the bridge, and turned up-right according to its EXIF orientation.
+    path?: string,
+    // A file:// or content:// URI, read like path.
+    uri?: string,
     // The options for the face detector.
     options?: FirebaseVisionFaceDetectorOptions,
-  }): Promise<FirebaseVisionFaceResult> {
+    // The format of the detected faces.
+    resultFormat?: FirebaseVisionResultFormat,
+    // The attributes of the faces to compute and return.
+    fields?: FirebaseVisionFaceField[],
+    // Returns the durations of the stages of this call with the result.
+    includeTimings?: boolean,
+    // Smooths and diffs the faces against the faces of the earlier calls.
+    tracking?: boolean | FirebaseVisionTrackingOptions,
+    // Adapts the detector settings to the latency of the earlier calls.
+    adaptive?: boolean | FirebaseVisionAdaptiveOptions,
+    // Returns the faces of an earlier call with the same image and options from the result cache.
+    cache?: boolean,
+    // Identifies the call for cancel().
+    requestId?: string,
+    // Rejects the call if it did not complete within this many milliseconds of being called.
+    deadlineMs?: number,
+  } & FirebaseVisionImageDecodeOptions): Promise<FirebaseVisionFaceResult> {
     console.log("detectInImage", options);
     throw new Error("Method not implemented.");
   }
+
+  // Runs several detectors on one image.
+  async detect(options: {
+    image?: string,
+    path?: string,
+    uri?: string,
+    detectors: FirebaseVisionDetectors,
+    resultFormat?: FirebaseVisionResultFormat,
+  } & FirebaseVisionImageDecodeOptions): Promise<FirebaseVisionDetectResult> {
+    console.log("detect", options);
+    throw new Error("Method not implemented.");
+  }
+
+  // Detects human faces in a list of images with one detector.
+  async detectInImages(options: {
+    // Base64 encoded images, file:// and content:// URIs or paths returned by Capacitor.convertFileSrc().
+    images: string[],
+    // The options for the face detector.
+    options?: FirebaseVisionFaceDetectorOptions,
+    parallelism?: number,
+    batchId?: string,
+    resultFormat?: FirebaseVisionResultFormat,
+    fields?: FirebaseVisionFaceField[],
+  } & FirebaseVisionImageDecodeOptions): Promise<FirebaseVisionBatchResult> {
+    console.log("detectInImages", options);
+    throw new Error("Method not implemented.");
+  }
+
+  // Cancels a running detectInImages call.
+  async cancelBatch(options: {
+    batchId: string,
+  }): Promise<void> {
+    console.log("cancelBatch", options);
+    throw new Error("Method not implemented.");
+  }
+
+  // Cancels a detectInImage call by its requestId, or a detectInImages call by its batchId.
+  async cancel(options: {
+    requestId: string,
+  }): Promise<{ cancelled: boolean }> {
+    console.log("cancel", options);
+    throw new Error("Method not implemented.");
+  }
+
+  // Forgets all tracked faces of detectInImage calls and of the camera stream.
+  async resetTracking(): Promise<void> {
+    console.log("resetTracking");
+    throw new Error("Method not implemented.");
+  }
+
+  // Returns the per-stage timings and sizes of all detectInImage calls.
+  async getMetrics(): Promise<FirebaseVisionMetrics> {
+    console.log("getMetrics");
+    throw new Error("Method not implemented.");
+  }
+
+  // Clears the metrics returned by getMetrics().
+  async resetMetrics(): Promise<void> {
+    console.log("resetMetrics");
+    throw new Error("Method not implemented.");
+  }
+
+  // Configures the result cache of detectInImage calls.
+  async configureResultCache(options: {
+    maxBytes?: number,
+    disk?: boolean,
+    maxDiskBytes?: number,
+  }): Promise<void> {
+    console.log("configureResultCache", options);
+    throw new Error("Method not implemented.");
+  }
+
+  // Removes all results from the result cache.
+  async clearResultCache(): Promise<void> {
+    console.log("clearResultCache");
+    throw new Error("Method not implemented.");
+  }
+
+  // Configures how many detectInImage calls are processed concurrently.
+  async configureScheduler(options: {
+    maxInFlight?: number,
+    maxQueued?: number,
+    policy?: FrameSchedulingPolicy,
+    threads?: number,
+  }): Promise<void> {
+    console.log("configureScheduler", options);
+    throw new Error("Method not implemented.");
+  }
+
+  // Loads the face detector for the given options ahead of the first detection.
+  async warmUp(options: {
+    // The options for the face detector.
+    options?: FirebaseVisionFaceDetectorOptions,
+  }): Promise<void> {
+    console.log("warmUp", options);
+    throw new Error("Method not implemented.");
+  }
+
+  // Closes all cached detectors and releases their model resources.
+  async releaseDetectors(): Promise<void> {
+    console.log("releaseDetectors");
+    throw new Error("Method not implemented.");
+  }
+
+  // Starts detecting human faces in the frames of the device's camera.
+  async startFaceStream(options: {
+    // The options for the face detector.
+    options?: FirebaseVisionFaceDetectorOptions,
+    // The camera to use, defaults to "front".
+    lensFacing?: "front" | "back",
+    // The target resolution of the camera frames.
+    width?: number,
+    height?: number,
+    // The format of the detected faces.
+    resultFormat?: FirebaseVisionResultFormat,
+    // The attributes of the faces to compute and return.
+    fields?: FirebaseVisionFaceField[],
+    // Smooths and diffs the faces of consecutive frames.
+    tracking?: boolean | FirebaseVisionTrackingOptions,
+    // Adapts the detector settings to the latency of the frames.
+    adaptive?: boolean | FirebaseVisionAdaptiveOptions,
+  }): Promise<void> {
+    console.log("startFaceStream", options);
+    throw new Error("Method not implemented.");
+  }
+
+  // Stops the camera stream started by startFaceStream().
+  async stopFaceStream(): Promise<void> {
+    console.log("stopFaceStream");
+    throw new Error("Method not implemented.");
+  }
 }
 
 const FirebaseMLVision = new FirebaseMLVisionWeb();